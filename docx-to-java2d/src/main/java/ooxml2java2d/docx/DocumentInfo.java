@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Page geometry and statistics describing a document, gathered by {@link DocxRenderer#probe()} without laying
+ * it out. All measurements are in twips (1/20th of a point).
+ */
+public class DocumentInfo {
+	private List<Section> sections;
+	private int paragraphCount;
+	private int tableCount;
+	private int imageCount;
+	private long imageBytes;
+
+	DocumentInfo(List<Section> sections, int paragraphCount, int tableCount, int imageCount, long imageBytes) {
+		this.sections = Collections.unmodifiableList(sections);
+		this.paragraphCount = paragraphCount;
+		this.tableCount = tableCount;
+		this.imageCount = imageCount;
+		this.imageBytes = imageBytes;
+	}
+
+	/**
+	 * The sections of the document, in order.
+	 */
+	public List<Section> getSections() {
+		return sections;
+	}
+
+	/**
+	 * The number of paragraphs in the body of the document. This is approximate, as paragraphs inside tables and
+	 * text boxes are included but those in headers and footers are not.
+	 */
+	public int getParagraphCount() {
+		return paragraphCount;
+	}
+
+	/**
+	 * The number of tables in the body of the document, including nested tables.
+	 */
+	public int getTableCount() {
+		return tableCount;
+	}
+
+	/**
+	 * The number of images embedded in the document package.
+	 */
+	public int getImageCount() {
+		return imageCount;
+	}
+
+	/**
+	 * The total uncompressed size of the images embedded in the document package, or -1 if it isn't known.
+	 */
+	public long getImageBytes() {
+		return imageBytes;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+			.append("sections", sections)
+			.append("paragraphCount", paragraphCount)
+			.append("tableCount", tableCount)
+			.append("imageCount", imageCount)
+			.append("imageBytes", imageBytes)
+			.toString();
+	}
+
+	/**
+	 * The page size and margins of a section.
+	 */
+	public static class Section {
+		private boolean continuous;
+		private int width;
+		private int height;
+		private int topMargin;
+		private int rightMargin;
+		private int bottomMargin;
+		private int leftMargin;
+		private int headerMargin;
+		private int footerMargin;
+
+		Section(
+			boolean continuous, int width, int height, int topMargin, int rightMargin,
+			int bottomMargin, int leftMargin, int headerMargin, int footerMargin
+		) {
+			this.continuous = continuous;
+			this.width = width;
+			this.height = height;
+			this.topMargin = topMargin;
+			this.rightMargin = rightMargin;
+			this.bottomMargin = bottomMargin;
+			this.leftMargin = leftMargin;
+			this.headerMargin = headerMargin;
+			this.footerMargin = footerMargin;
+		}
+
+		/**
+		 * Whether the section continues on the same page as the previous one, rather than starting a new page.
+		 */
+		public boolean isContinuous() {
+			return continuous;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		public int getTopMargin() {
+			return topMargin;
+		}
+
+		public int getRightMargin() {
+			return rightMargin;
+		}
+
+		public int getBottomMargin() {
+			return bottomMargin;
+		}
+
+		public int getLeftMargin() {
+			return leftMargin;
+		}
+
+		public int getHeaderMargin() {
+			return headerMargin;
+		}
+
+		public int getFooterMargin() {
+			return footerMargin;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+				.append("continuous", continuous)
+				.append("width", width)
+				.append("height", height)
+				.append("topMargin", topMargin)
+				.append("rightMargin", rightMargin)
+				.append("bottomMargin", bottomMargin)
+				.append("leftMargin", leftMargin)
+				.append("headerMargin", headerMargin)
+				.append("footerMargin", footerMargin)
+				.toString();
+		}
+	}
+}
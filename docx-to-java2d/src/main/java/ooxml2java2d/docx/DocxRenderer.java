@@ -17,25 +17,45 @@
 package ooxml2java2d.docx;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
 import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.Map;
+import java.util.Set;
 
 import ooxml2java2d.GraphicsBuilder;
 import ooxml2java2d.Renderer;
+import ooxml2java2d.docx.internal.Colors;
 import ooxml2java2d.docx.internal.HAlignment;
+import ooxml2java2d.docx.internal.HandlerRegistry;
 import ooxml2java2d.docx.internal.FontStyle;
 import ooxml2java2d.docx.internal.GraphicsRenderer;
 import ooxml2java2d.docx.internal.PageInitiationAdapter;
 import ooxml2java2d.docx.internal.PageLayout;
 import ooxml2java2d.docx.internal.ParagraphStyle;
+import ooxml2java2d.docx.internal.ResolvedStyleCache;
+import ooxml2java2d.docx.internal.RunNormalizer;
+import ooxml2java2d.docx.internal.StyleSheet;
 import ooxml2java2d.docx.internal.VAlignment;
+import ooxml2java2d.docx.internal.WordMetricsCache;
 import ooxml2java2d.docx.internal.content.Border;
 import ooxml2java2d.docx.internal.content.BorderStyle;
 import ooxml2java2d.docx.internal.content.Column;
@@ -44,29 +64,46 @@ import ooxml2java2d.docx.internal.content.ImageContent;
 import ooxml2java2d.docx.internal.content.Line;
 import ooxml2java2d.docx.internal.content.StringContent;
 import ooxml2java2d.docx.internal.content.TableRow;
-
-import org.apache.commons.lang.StringUtils;
+import ooxml2java2d.docx.internal.font.EmbeddedFonts;
+import ooxml2java2d.docx.internal.font.FontRegistry;
+import ooxml2java2d.docx.internal.font.ShapedText;
+import ooxml2java2d.docx.internal.io.BodyReader;
+import ooxml2java2d.docx.internal.io.BodySummary;
+import ooxml2java2d.docx.internal.io.ContentDigest;
+import ooxml2java2d.docx.internal.io.PackageLoader;
+import ooxml2java2d.docx.internal.numbering.LevelDefinition;
+import ooxml2java2d.docx.internal.numbering.ListCounters;
+import ooxml2java2d.docx.internal.numbering.ListDefinition;
+import ooxml2java2d.docx.internal.numbering.ListDefinitions;
+
+import org.apache.commons.io.IOUtils;
 import org.docx4j.dml.CTPositiveSize2D;
 import org.docx4j.dml.GraphicData;
 import org.docx4j.dml.wordprocessingDrawing.Anchor;
 import org.docx4j.dml.wordprocessingDrawing.Inline;
-import org.docx4j.model.listnumbering.AbstractListNumberingDefinition;
-import org.docx4j.model.listnumbering.ListLevel;
+import org.docx4j.jaxb.Context;
+import org.docx4j.model.structure.HeaderFooterPolicy;
 import org.docx4j.model.structure.SectionWrapper;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.DocumentSettingsPart;
 import org.docx4j.openpackaging.parts.WordprocessingML.FooterPart;
 import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
 import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.StyleDefinitionsPart;
 import org.docx4j.openpackaging.parts.relationships.Namespaces;
 import org.docx4j.openpackaging.parts.relationships.RelationshipsPart;
+import org.docx4j.wml.BooleanDefaultTrue;
 import org.docx4j.wml.Br;
 import org.docx4j.wml.CTBorder;
 import org.docx4j.wml.CTHeight;
 import org.docx4j.wml.CTTblCellMar;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.Drawing;
-import org.docx4j.wml.Lvl;
+import org.docx4j.wml.Fonts;
 import org.docx4j.wml.P;
 import org.docx4j.wml.P.Hyperlink;
 import org.docx4j.wml.PPr;
@@ -94,6 +131,7 @@ import org.docx4j.wml.UnderlineEnumeration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.imageio.ImageIO;
 import javax.xml.bind.JAXBElement;
 import javax.xml.namespace.QName;
 
@@ -105,7 +143,16 @@ public class DocxRenderer implements Renderer {
 	private static final QName QNAME_TEXT = new QName(Namespaces.NS_WORD12, "t");
 	private static final int TAB_WIDTH = 712;
 	private static final int EMU_DIVISOR = 635; // divide emu by this to convert to dxa
-	private static final String BULLET = new Character((char) 0x2022).toString();
+	private static final String STYLE_TYPE_PARAGRAPH = "paragraph";
+	private static final ContentHandler SKIP = new ContentHandler() {
+		@Override
+		public Column handle(DocxRenderer renderer, Object content, Column column) {
+			return column;
+		}
+	};
+	private static final HandlerRegistry<ContentHandler> DEFAULT_HANDLERS = createDefaultHandlers();
+	// guarded by the class, so that threads warming up at the same time wait for the one doing the work
+	private static boolean warmedUp;
 	private WordprocessingMLPackage word;
 	private MainDocumentPart main;
 	private PageInitiationAdapter initiation;
@@ -113,19 +160,115 @@ public class DocxRenderer implements Renderer {
 	private Deque<PageLayout> layouts;
 	private PageLayout layout;
 	private int page = 1;
-	private ParagraphStyle defaultParaStyle;
 	private ParagraphStyle paraStyle;
 	private ParagraphStyle runStyle;
 	private RelationshipsPart relationshipPart;
+	private boolean streaming;
+	private boolean normalizingRuns;
+	private StyleCache styleCache;
+	private StyleSheet styleSheet;
+	private ResolvedStyleCache resolvedStyles;
+	private ListCounters listCounters;
+	private Map<String, String> embeddedFamilies = Collections.emptyMap();
+	private HandlerRegistry<ContentHandler> handlers = DEFAULT_HANDLERS;
 
 	public DocxRenderer(File docx) throws IOException {
-		try {
-			this.word = WordprocessingMLPackage.load(docx);
-			this.main = word.getMainDocumentPart();
-		} catch (Docx4JException e) {
-			throw new IOException("Error loading document", e);
-		}
+		this(docx, LoadMode.EAGER);
+	}
+
+	/**
+	 * Reads the document from a file.
+	 *
+	 * @param docx The document file
+	 * @param mode How the parts of the document are read
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(File docx, LoadMode mode) throws IOException {
+		this(PackageLoader.load(docx, mode));
+	}
 
+	/**
+	 * Reads the document from a stream. The stream is read to the end but not closed.
+	 *
+	 * @param docx The stream to read the document from
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(InputStream docx) throws IOException {
+		this(IOUtils.toByteArray(docx));
+	}
+
+	/**
+	 * Reads the document from a byte array. The array is used directly and must not be modified until rendering is complete.
+	 *
+	 * @param docx The document bytes
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(byte[] docx) throws IOException {
+		this(ByteBuffer.wrap(docx));
+	}
+
+	/**
+	 * Reads the document from the remaining bytes of a buffer. Parts are read directly from the buffer as they are needed
+	 * (see {@link LoadMode#LAZY}), so it must not be modified until rendering is complete.
+	 *
+	 * @param docx The document bytes
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(ByteBuffer docx) throws IOException {
+		this(PackageLoader.load(docx));
+	}
+
+	/**
+	 * Reads the document from a region of a file, which is memory mapped rather than copied onto the heap.
+	 *
+	 * @param channel The channel to map the document from
+	 * @param position The position within the file at which the document starts
+	 * @param size The size of the document in bytes
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(FileChannel channel, long position, long size) throws IOException {
+		this(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+	}
+
+	/**
+	 * Reads the document through a channel, such as one backed by range reads from remote storage. Only the zip
+	 * central directory is read up front and each part is fetched from the channel when it is first needed, so
+	 * the channel must stay open until rendering is complete. The channel is not closed.
+	 *
+	 * @param channel The channel to read the document from
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(SeekableByteChannel channel) throws IOException {
+		this(PackageLoader.load(channel));
+	}
+
+	/**
+	 * Reads the document from a file, reusing the copy already loaded by the cache if the content is the same. The file
+	 * is memory mapped and must not be modified while the document remains in the cache.
+	 *
+	 * @param docx The document file
+	 * @param cache The cache of loaded documents
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(File docx, PackageCache cache) throws IOException {
+		this(cache.get(docx));
+	}
+
+	/**
+	 * Reads the document from the remaining bytes of a buffer, reusing the copy already loaded by the cache if the
+	 * content is the same. The buffer must not be modified while the document remains in the cache.
+	 *
+	 * @param docx The document bytes
+	 * @param cache The cache of loaded documents
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocxRenderer(ByteBuffer docx, PackageCache cache) throws IOException {
+		this(cache.get(docx));
+	}
+
+	private DocxRenderer(WordprocessingMLPackage word) {
+		this.word = word;
+		this.main = word.getMainDocumentPart();
 		this.initiation = new PageInitiationAdapter() {
 			@Override
 			public void initiatePage() {
@@ -134,45 +277,441 @@ public class DocxRenderer implements Renderer {
 		};
 	}
 
+	/**
+	 * Performs the one-off initialisation that would otherwise slow down the first document rendered by the JVM:
+	 * creating the docx4j JAXB context, starting the AWT font system, scanning for ImageIO plugins and loading the
+	 * rendering classes by laying out a small generated document. Calling this is optional and only the first call
+	 * that succeeds does any work, with calls made while it's under way waiting for it to finish.
+	 *
+	 * @return Whether this call did the work, rather than finding it done already
+	 */
+	public static synchronized boolean warmUp() {
+		if (warmedUp) {
+			return false;
+		}
+
+		LOG.debug("Warming up with JAXB context " + Context.jc.getClass().getName());
+
+		GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames();
+		ImageIO.getReaderFormatNames();
+
+		try {
+			WordprocessingMLPackage word = WordprocessingMLPackage.createPackage();
+
+			word.getMainDocumentPart().addStyledParagraphOfText("Title", "Warm up");
+			word.getMainDocumentPart().addParagraphOfText("Warm up");
+
+			new DocxRenderer(word).render(new GraphicsBuilder() {
+				@Override
+				public Graphics2D nextPage(int pageWidth, int pageHeight) {
+					return new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+				}
+			});
+		} catch (Docx4JException e) {
+			throw new IllegalStateException("Error creating warm up document", e);
+		}
+
+		warmedUp = true;
+
+		return true;
+	}
+
+	/**
+	 * Returns the fraction of words measured while laying out text that were found already measured in the cache
+	 * shared by every render in the JVM, or 0 if nothing has been measured yet. Only text that can't be shaped from a
+	 * font's tables (complex scripts, kerned fonts without OpenType metrics, ...), list labels and empty lines are
+	 * measured a word at a time.
+	 */
+	public static double getWordCacheHitRate() {
+		return WordMetricsCache.getShared().getHitRate();
+	}
+
+	/**
+	 * Sets whether the document body is read incrementally as it is laid out, rather than being unmarshalled in full
+	 * before rendering starts. This reduces the time to the first page and the memory used by large documents.
+	 *
+	 * Each block of the body is released once it has been laid out and painted, so when the document is also loaded
+	 * with {@link LoadMode#LAZY} the memory used is proportional to the page being rendered rather than the length
+	 * of the document.
+	 *
+	 * The body can't be streamed once it has been unmarshalled, so this has no effect on documents loaded with
+	 * {@link LoadMode#PARALLEL}, or on a cached document that an earlier render has already read in full. A warning is
+	 * logged when a render falls back to the unmarshalled body.
+	 *
+	 * @param streaming Whether the document body should be streamed
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Sets whether the runs of each paragraph are simplified before layout. Editing markers that don't affect
+	 * rendering (proofing errors, bookmarks and comment ranges) are skipped and adjacent runs that would be rendered
+	 * with the same formatting are merged, so documents split into many runs by revision tracking or spell checking
+	 * don't pay for resolving the same run style over and over. The rendered output is unchanged.
+	 *
+	 * @param normalizingRuns Whether runs should be normalized
+	 */
+	public void setNormalizingRuns(boolean normalizingRuns) {
+		this.normalizingRuns = normalizingRuns;
+	}
+
+	/**
+	 * Sets the handler for a type of element, in place of however the renderer would otherwise handle it. This can
+	 * add support for elements the renderer doesn't handle, e.g. rendering the content of structured document tags.
+	 *
+	 * @param type The type of element, which also covers its subclasses
+	 * @param handler The handler for elements of the type
+	 */
+	public <T> void setElementHandler(final Class<T> type, final ElementHandler<? super T> handler) {
+		getCustomHandlers().register(type, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				HandlerContext context = renderer.new HandlerContext(column);
+
+				handler.handle(type.cast(unwrap(content)), context);
+
+				return context.column;
+			}
+		});
+	}
+
+	/**
+	 * Skips elements of the given types along with everything they contain, for example tables and drawings when only
+	 * the flow of text is wanted.
+	 *
+	 * @param types The types of element, which also cover their subclasses
+	 */
+	public void skipElements(Class<?>... types) {
+		for (Class<?> type : types) {
+			getCustomHandlers().register(type, SKIP);
+		}
+	}
+
+	/**
+	 * Sets a cache of compiled style and numbering definitions to share with other renderers, so documents created from
+	 * the same template only have their styles resolved once.
+	 *
+	 * @param styleCache The cache to use, or null to compile the styles for every render
+	 */
+	public void setStyleCache(StyleCache styleCache) {
+		this.styleCache = styleCache;
+	}
+
+	/**
+	 * Reads the page geometry of each section and some statistics about the document, without unmarshalling or
+	 * laying out its body. Combined with {@link LoadMode#LAZY} this only reads the document's metadata and scans
+	 * the body for section properties, so is fast even for very large documents.
+	 *
+	 * @return The page geometry and statistics of the document
+	 * @throws IOException If the document couldn't be read
+	 */
+	public DocumentInfo probe() throws IOException {
+		BodySummary body;
+
+		try (InputStream in = openPart(main)) {
+			body = BodyReader.summarize(in);
+		}
+
+		List<DocumentInfo.Section> sections = new ArrayList<>();
+
+		for (PageLayout pageLayout : createPageLayouts(body.getSections())) {
+			sections.add(new DocumentInfo.Section(
+				pageLayout.getType() == PageLayout.Type.CONTINUOUS,
+				pageLayout.getWidth(),
+				pageLayout.getHeight(),
+				pageLayout.getTopMargin(),
+				pageLayout.getRightMargin(),
+				pageLayout.getBottomMargin(),
+				pageLayout.getLeftMargin(),
+				pageLayout.getHeaderMargin(),
+				pageLayout.getFooterMargin()
+			));
+		}
+
+		int imageCount = 0;
+		long imageBytes = 0;
+
+		for (Part part : word.getParts().getParts().values()) {
+			if (part instanceof BinaryPart && part.getContentType().startsWith("image/")) {
+				long size;
+
+				try {
+					// the size recorded by the part store, so the image isn't loaded
+					size = word.getSourcePartStore().getPartSize(part.getPartName().getName().substring(1));
+				} catch (Docx4JException e) {
+					throw new IOException("Error reading part " + part.getPartName(), e);
+				}
+
+				imageCount++;
+				imageBytes = (size < 0 || imageBytes < 0) ? -1 : imageBytes + size;
+			}
+		}
+
+		return new DocumentInfo(sections, body.getParagraphCount(), body.getTableCount(), imageCount, imageBytes);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void render(GraphicsBuilder builder) {
+		// renderers of a document from a PackageCache share its package, which rendering loads parts into and modifies
+		synchronized (word) {
+			renderPackage(builder);
+		}
+	}
+
+	private void renderPackage(GraphicsBuilder builder) {
+		if (streaming && main.isUnmarshalled()) {
+			LOG.warn("The document body is already unmarshalled, it won't be streamed");
+		}
 		this.renderer = new GraphicsRenderer(builder, initiation);
 		this.layouts = getPageLayouts();
 		this.layout = layouts.removeFirst();
+		this.resolvedStyles = new ResolvedStyleCache();
+		this.listCounters = new ListCounters();
+
+		try {
+			embeddedFamilies = EmbeddedFonts.register(main.getFontTablePart());
+			preloadFonts();
+			styleSheet = getStyleSheet();
+
+			renderer.nextPage(layout.getWidth(), layout.getHeight());
+
+			Column column = new Column(layout.getLeftMargin(), layout.getWidth() - layout.getLeftMargin() - layout.getRightMargin());
+
+			if (isStreaming()) {
+				try (BodyReader body = new BodyReader(openPart(main))) {
+					iterateContentParts(body, column);
+				} catch (IOException ioe) {
+					throw new IllegalStateException("Error reading document body", ioe);
+				}
+			} else {
+				iterateContentParts(main, column);
+			}
+		} finally {
+			// only the counts are kept, for anyone interested in how well the cache did
+			resolvedStyles.clear();
+			LOG.debug("Resolved styles: " + resolvedStyles);
+			LOG.debug("Word metrics: " + WordMetricsCache.getShared());
+
+			releaseRenderState();
+		}
+	}
+
+	/**
+	 * The resolved styles of the last render, which only hold on to their hit and miss counts once it is done.
+	 */
+	ResolvedStyleCache getResolvedStyles() {
+		return resolvedStyles;
+	}
+
+	// Nothing laid out needs to outlive the render, even if the caller holds on to this renderer
+	private void releaseRenderState() {
+		renderer = null;
+		layouts = null;
+		layout = null;
+		styleSheet = null;
+		listCounters = null;
+		EmbeddedFonts.release(embeddedFamilies);
+		embeddedFamilies = Collections.emptyMap();
+		paraStyle = null;
+		runStyle = null;
+		relationshipPart = null;
+		page = 1;
+	}
+
+	// Streaming is only worthwhile if nothing has caused the document to be unmarshalled already
+	private boolean isStreaming() {
+		return streaming && !main.isUnmarshalled();
+	}
+
+	private InputStream openPart(Part part) throws IOException {
+		return PackageLoader.openPart(part);
+	}
+
+	private StyleSheet getStyleSheet() {
+		ByteBuffer key = (styleCache == null) ? null : getStyleSheetKey();
+
+		if (key != null) {
+			StyleSheet cached = styleCache.get(key);
+
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		StyleSheet compiled = compileStyleSheet();
+
+		if (key != null) {
+			styleCache.put(key, compiled);
+		}
 
-		setDefaultStyles();
+		return compiled;
+	}
+
+	// Hashes the raw style and numbering parts, so the key is known without unmarshalling them
+	private ByteBuffer getStyleSheetKey() {
+		ContentDigest digest = new ContentDigest();
+
+		try {
+			for (Part part : new Part[] { main.getStyleDefinitionsPart(), main.getNumberingDefinitionsPart() }) {
+				if (part == null) {
+					digest.update("-");
+				} else if (word.getSourcePartStore() == null || part instanceof JaxbXmlPart && ((JaxbXmlPart<?>) part).isUnmarshalled()) {
+					// the content may have been changed since it was loaded
+					return null;
+				} else {
+					digest.update(part.getPartName().getName());
+					digest.update(openPart(part));
+				}
+			}
+		} catch (IOException ioe) {
+			LOG.warn("Unable to hash style definitions, they won't be cached", ioe);
+			return null;
+		}
 
-		renderer.nextPage(layout.getWidth(), layout.getHeight());
+		// the compiled styles refer to embedded fonts by names unique to their content
+		if (!embeddedFamilies.isEmpty()) {
+			digest.update(embeddedFamilies.toString());
+		}
 
-		iterateContentParts(main, new Column(layout.getLeftMargin(), layout.getWidth() - layout.getLeftMargin() - layout.getRightMargin()));
+		return digest.toKey();
 	}
 
-	private void setDefaultStyles() {
-		defaultParaStyle = getRunStyle(
+	private StyleSheet compileStyleSheet() {
+		StyleDefinitionsPart styles = main.getStyleDefinitionsPart();
+		Map<String, Style> stylesById = new HashMap<>();
+		ListDefinitions listDefinitions = ListDefinitions.empty();
+
+		// Avoid MainDocumentPart.getStyleTree() as it walks the whole document body to find the styles in use
+		try {
+			styles.createVirtualStylesForDocDefaults();
+
+			for (Style style : styles.getContents().getStyle()) {
+				// match StyleDefinitionsPart.getStyleById, where the first style with an id wins
+				if (!stylesById.containsKey(style.getStyleId())) {
+					stylesById.put(style.getStyleId(), style);
+				}
+			}
+
+			preloadFonts(stylesById.values());
+
+			if (main.getNumberingDefinitionsPart() != null) {
+				listDefinitions = ListDefinitions.read(main.getNumberingDefinitionsPart().getContents());
+			}
+		} catch (Docx4JException e) {
+			throw new IllegalStateException("Error reading document styles", e);
+		}
+
+		// the default style is resolved using the styles themselves
+		styleSheet = new StyleSheet(stylesById, listDefinitions, null, Collections.<String, ParagraphStyle>emptyMap());
+
+		ParagraphStyle defaultStyle = getRunStyle(
 			new ParagraphStyle(),
-			main.getStyleTree().getParagraphStylesTree().get("DocDefaults").getData().getStyle().getRPr()
+			styleSheet.getStyle("DocDefaults").getRPr()
 		);
 
-		if (main.getStyleDefinitionsPart().getDefaultParagraphStyle() != null) {
-			defaultParaStyle = getStyle(defaultParaStyle, main.getStyleDefinitionsPart().getDefaultParagraphStyle());
+		if (styles.getDefaultParagraphStyle() != null) {
+			defaultStyle = getStyle(defaultStyle, styles.getDefaultParagraphStyle());
+		}
+
+		// flatten the paragraph styles, so that the layout doesn't have to walk the hierarchy
+		Map<String, ParagraphStyle> compiledStyles = new LinkedHashMap<>();
+
+		for (Style style : stylesById.values()) {
+			if (style.getType() == null || STYLE_TYPE_PARAGRAPH.equals(style.getType())) {
+				compiledStyles.put(style.getStyleId(), getStyle(defaultStyle, style));
+			}
+		}
+
+		return new StyleSheet(stylesById, listDefinitions, defaultStyle, compiledStyles);
+	}
+
+	// The font table lists the fonts used anywhere in the document, so they can be looked up while the styles are compiled
+	private void preloadFonts() {
+		Set<String> names = new HashSet<>();
+
+		if (main.getFontTablePart() != null) {
+			try {
+				Fonts fontTable = main.getFontTablePart().getContents();
+
+				if (fontTable != null) {
+					for (Fonts.Font font : fontTable.getFont()) {
+						names.add(font.getName());
+					}
+				}
+			} catch (Docx4JException e) {
+				// only a head start, the fonts are still looked up as the styles are compiled
+				LOG.debug("Unable to read the font table, fonts won't be preloaded", e);
+			}
+		}
+
+		// embedded fonts are already registered
+		names.removeAll(embeddedFamilies.keySet());
+		FontRegistry.getShared().preload(names);
+	}
+
+	// Includes the document defaults, which are a virtual style by now
+	private void preloadFonts(Collection<Style> styles) {
+		Set<String> names = new HashSet<>();
+
+		for (Style style : styles) {
+			if (style.getRPr() != null && style.getRPr().getRFonts() != null && style.getRPr().getRFonts().getAscii() != null) {
+				names.add(style.getRPr().getRFonts().getAscii());
+			}
 		}
+
+		// embedded fonts are already registered
+		names.removeAll(embeddedFamilies.keySet());
+		FontRegistry.getShared().preload(names);
 	}
 
 	private Deque<PageLayout> getPageLayouts() {
+		if (isStreaming()) {
+			try (InputStream in = openPart(main)) {
+				return createPageLayouts(BodyReader.readSections(in));
+			} catch (IOException ioe) {
+				throw new IllegalStateException("Error reading document sections", ioe);
+			}
+		}
+
 		Deque<PageLayout> layouts = new ArrayDeque<>();
 
 		for (SectionWrapper sw : word.getDocumentModel().getSections()) {
-			layouts.add(createPageLayout(sw));
+			layouts.add(createPageLayout(sw.getSectPr(), sw.getHeaderFooterPolicy()));
+		}
+
+		return layouts;
+	}
+
+	// Equivalent to the document model's sections, but without unmarshalling the document body
+	private Deque<PageLayout> createPageLayouts(List<SectPr> sections) {
+		Deque<PageLayout> layouts = new ArrayDeque<>();
+		HeaderFooterPolicy previous = null;
+
+		for (SectPr sectPr : sections) {
+			HeaderFooterPolicy policy = new HeaderFooterPolicy(sectPr, previous, main.getRelationshipsPart(), getEvenAndOddHeaders());
+
+			layouts.add(createPageLayout(sectPr, policy));
+			previous = policy;
 		}
 
 		return layouts;
 	}
 
-	private PageLayout createPageLayout(SectionWrapper sw) {
-		SectPr sectPr = sw.getSectPr();
+	private BooleanDefaultTrue getEvenAndOddHeaders() {
+		DocumentSettingsPart settings = main.getDocumentSettingsPart();
+
+		try {
+			return (settings == null) ? null : settings.getContents().getEvenAndOddHeaders();
+		} catch (Docx4JException e) {
+			throw new IllegalStateException("Error reading document settings", e);
+		}
+	}
+
+	private PageLayout createPageLayout(SectPr sectPr, HeaderFooterPolicy headerFooterPolicy) {
 		PgSz size = sectPr.getPgSz();
 		PgMar margin = sectPr.getPgMar();
 		PageLayout.Type type = PageLayout.Type.NEXTPAGE;
@@ -197,7 +736,7 @@ public class DocxRenderer implements Renderer {
 			getValue(margin.getLeft()),
 			getValue(margin.getHeader()),
 			getValue(margin.getFooter()),
-			sw.getHeaderFooterPolicy()
+			headerFooterPolicy
 		);
 	}
 
@@ -269,69 +808,132 @@ public class DocxRenderer implements Renderer {
 		renderer.setEndPosition(footerStart);
 	}
 
-	private void iterateContentParts(ContentAccessor ca, Column column) {
-		for (Object obj : ca.getContent()) {
-			if (obj instanceof P) {
-				if (processParagraph((P) obj, column)) {
-					column = new Column(layout.getLeftMargin(), layout.getWidth() - layout.getLeftMargin() - layout.getRightMargin());
+	private Column iterateContentParts(ContentAccessor ca, Column column) {
+		return iterateContentParts(ca.getContent().iterator(), column);
+	}
+
+	// Returns the column to carry on with, which is a new one if a paragraph started a new page
+	private Column iterateContentParts(Iterator<?> content, Column column) {
+		Column current = column;
+
+		while (content.hasNext()) {
+			Object obj = content.next();
+
+			current = handlers.get(unwrap(obj).getClass()).handle(this, obj, current);
+		}
+
+		return current;
+	}
+
+	private HandlerRegistry<ContentHandler> getCustomHandlers() {
+		if (handlers == DEFAULT_HANDLERS) {
+			handlers = new HandlerRegistry<>(DEFAULT_HANDLERS);
+		}
+
+		return handlers;
+	}
+
+	private static Object unwrap(Object content) {
+		return (content instanceof JAXBElement) ? ((JAXBElement<?>) content).getValue() : content;
+	}
+
+	private static HandlerRegistry<ContentHandler> createDefaultHandlers() {
+		HandlerRegistry<ContentHandler> handlers = new HandlerRegistry<>(SKIP);
+
+		handlers.register(P.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				if (renderer.processParagraph((P) unwrap(content), column)) {
+					return new Column(renderer.layout.getLeftMargin(), renderer.layout.getWidth() - renderer.layout.getLeftMargin() - renderer.layout.getRightMargin());
 				}
-			} else if (obj instanceof R) {
-				processTextRun((R) obj, column);
-			} else if (obj instanceof Br) {
-				processBreak((Br) obj, column);
-			} else if (obj instanceof JAXBElement) {
-				JAXBElement<?> element = (JAXBElement<?>) obj;
-
-				if (element.getDeclaredType().equals(Text.class)) {
-					if (element.getName().equals(QNAME_TEXT)) {
-						processText((Text) element.getValue(), column);
-					}
-				} else if (element.getDeclaredType().equals(Tab.class)) {
-					processTab((Tab) element.getValue(), column);
-				} else if (element.getDeclaredType().equals(Tbl.class)) {
-					processTable((Tbl) element.getValue(), column);
-				} else if (element.getDeclaredType().equals(Drawing.class)) {
-					processDrawing((Drawing) element.getValue(), column);
-				} else if (element.getDeclaredType().equals(Hyperlink.class)) {
-					processHyperlink((Hyperlink) element.getValue(), column);
-				} else {
-					LOG.debug("Unhandled JAXBElement object " + element.getDeclaredType());
+
+				return column;
+			}
+		});
+		handlers.register(R.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processTextRun((R) unwrap(content), column);
+				return column;
+			}
+		});
+		handlers.register(Br.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processBreak((Br) unwrap(content), column);
+				return column;
+			}
+		});
+		handlers.register(Text.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				// other elements of the same type, such as field instructions and deleted text, aren't rendered
+				if (content instanceof JAXBElement && ((JAXBElement<?>) content).getName().equals(QNAME_TEXT)) {
+					renderer.processText((Text) unwrap(content), column);
 				}
-			} else {
-				LOG.debug("Unhandled document object " + obj.getClass());
+
+				return column;
 			}
-		}
+		});
+		handlers.register(Tab.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processTab((Tab) unwrap(content), column);
+				return column;
+			}
+		});
+		handlers.register(Tbl.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processTable((Tbl) unwrap(content), column);
+				return column;
+			}
+		});
+		handlers.register(Drawing.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processDrawing((Drawing) unwrap(content), column);
+				return column;
+			}
+		});
+		handlers.register(Hyperlink.class, new ContentHandler() {
+			@Override
+			public Column handle(DocxRenderer renderer, Object content, Column column) {
+				renderer.processHyperlink((Hyperlink) unwrap(content), column);
+				return column;
+			}
+		});
+
+		return handlers;
 	}
 
 	// Returns true if a new page was created
 	private boolean processParagraph(P p, Column column) {
 		PPr properties = p.getPPr();
 
-		paraStyle = getParagraphStyle(defaultParaStyle, properties);
+		paraStyle = getParagraphStyle(properties);
 
 		column.addAction(paraStyle.getHAlignment());
 		column.addVerticalSpace(paraStyle.getSpaceBefore());
 
 		Column paraContent = new Column(column.getXOffset() + paraStyle.getIndentLeft(), column.getWidth() - paraStyle.getIndentLeft() - paraStyle.getIndentRight());
 
-		if (properties != null && properties.getNumPr() != null) {
+		if (properties != null && properties.getNumPr() != null && properties.getNumPr().getNumId() != null) {
 			NumPr numberingProperties = properties.getNumPr();
-			String abstractNumId = numberingProperties.getNumId().getVal().toString();
-			String levelReference = numberingProperties.getIlvl().getVal().toString();
-			AbstractListNumberingDefinition numberingDef = main.getNumberingDefinitionsPart().getAbstractListDefinitions().get(abstractNumId);
-
-			if (numberingDef != null) {
-				ListLevel listLvl = numberingDef.getListLevels().get(levelReference);
+			ListDefinition list = styleSheet.getList(String.valueOf(numberingProperties.getNumId().getVal()));
+			int level = (numberingProperties.getIlvl() == null) ? 0 : numberingProperties.getIlvl().getVal().intValue();
 
-				if (listLvl.IsBullet()) {
-					Lvl lvl = listLvl.getJaxbAbstractLvl();
+			if (list != null && list.getLevel(level) != null) {
+				String label = listCounters.next(list, level);
 
-					paraStyle = getParagraphStyle(paraStyle, lvl.getPPr());
+				// without a label the hanging indent puts the first line back where it would have been anyway
+				if (!label.isEmpty()) {
+					paraStyle = getLevelStyle(paraStyle, list.getLevel(level));
+					paraContent = new Column(column.getXOffset() + paraStyle.getIndentLeft(), column.getWidth() - paraStyle.getIndentLeft());
 
-					Rectangle2D bounds = paraStyle.getStringBoxSize(BULLET);
+					Rectangle2D bounds = listCounters.getLabelBounds(paraStyle.getFontConfig(), label);
 
-					paraContent = new Column(column.getXOffset() + paraStyle.getIndentLeft(), column.getWidth() - paraStyle.getIndentLeft());
-					paraContent.addContent(new StringContent((int) bounds.getWidth(), (int) bounds.getHeight(), BULLET), paraStyle.getLineSpacing());
+					paraContent.addContent(new StringContent((int) bounds.getWidth(), (int) bounds.getHeight(), label), paraStyle.getLineSpacing());
 					paraContent.addHorizontalSpace(paraStyle.getIndentHanging(), paraStyle.getLineSpacing());
 				}
 			}
@@ -342,7 +944,7 @@ public class DocxRenderer implements Renderer {
 		} else {
 			paraContent.setBuffered(column.isBuffered());
 
-			iterateContentParts(p, paraContent);
+			iterateRuns(p, paraContent);
 
 			paraContent.setBuffered(false);
 		}
@@ -368,12 +970,13 @@ public class DocxRenderer implements Renderer {
 	private void processTextRun(R run, Column column) {
 		ParagraphStyle newRunStyle = getRunStyle(paraStyle, run.getRPr());
 
-		if (runStyle == null || !newRunStyle.getFontConfig().equals(runStyle.getFontConfig())) {
+		// fonts and colors are interned
+		if (runStyle == null || newRunStyle.getFontConfig() != runStyle.getFontConfig()) {
 			column.addAction(newRunStyle.getFontConfig());
 		}
 
-		if (runStyle == null || !newRunStyle.getColor().equals(runStyle.getColor())) {
-			column.addAction(new Color(newRunStyle.getColor().getRGB()));
+		if (runStyle == null || newRunStyle.getColor() != runStyle.getColor()) {
+			column.addAction(newRunStyle.getColor());
 		}
 
 		runStyle = newRunStyle;
@@ -404,60 +1007,104 @@ public class DocxRenderer implements Renderer {
 	}
 
 	private void processText(Text text, Column column) {
-		StringTokenizer st = new StringTokenizer(text.getValue(), " ", true);
-		StringBuilder sb = new StringBuilder();
+		String value = text.getValue();
+		// shaped once, so every word and break point below is measured from the same layout
+		ShapedText shaped = runStyle.getFontConfig().shape(value);
 		Line line = column.getCurrentLine();
 		double width = 0;
 		double height = 0;
+		int lineStart = 0;
+		int lineEnd = 0;
+
+		// words and the single spaces between them, measured in place rather than split out into strings
+		while (lineEnd < value.length()) {
+			int start = lineEnd;
+			int end = getTokenEnd(value, start);
+			double wordWidth = shaped.getWidth(start, end);
+
+			if (line.canFitContent(width + wordWidth)) {
+				lineEnd = end;
+				width += wordWidth;
+				height = Math.max(height, shaped.getHeight(start, end));
+			} else if (wordWidth > column.getWidth()) {
+				while (lineEnd < end) {
+					int fitIndex = findLineBreak(line, width, shaped, lineEnd, end);
+
+					if (fitIndex > lineEnd) {
+						width += shaped.getWidth(lineEnd, fitIndex);
+						height = Math.max(height, shaped.getHeight(lineEnd, fitIndex));
+						lineEnd = fitIndex;
+					}
 
-		while (st.hasMoreTokens()) {
-			String word = st.nextToken();
-			Rectangle2D bounds = runStyle.getStringBoxSize(word);
-
-			if (line.canFitContent(width + bounds.getWidth())) {
-				sb.append(word);
-				width += bounds.getWidth();
-				height = Math.max(height, bounds.getHeight());
-			} else if (bounds.getWidth() > column.getWidth()) {
-				char[] chars = word.toCharArray();
-
-				for (int i = 0; i < chars.length; i++) {
-					bounds = runStyle.getStringBoxSize(String.valueOf(chars[i]));
-
-					if (line.canFitContent(width + bounds.getWidth())) {
-						sb.append(chars[i]);
-						width += bounds.getWidth();
-						height = Math.max(height, bounds.getHeight());
-					} else {
-						column.addContent(new StringContent((int) width, (int) height, sb.toString()), 0);
+					if (lineEnd < end) {
+						column.addContent(createStringContent(value, shaped, lineStart, lineEnd, width, height), 0);
 						column.addVerticalSpace(0);
 						line = column.getCurrentLine();
 						renderer.renderColumn(column);
 
-						sb = new StringBuilder(String.valueOf(chars[i]));
-						width = bounds.getWidth();
-						height = bounds.getHeight();
+						// each line takes at least one character, even one too wide for the column
+						lineStart = lineEnd;
+						lineEnd++;
+						width = shaped.getWidth(lineStart, lineEnd);
+						height = shaped.getHeight(lineStart, lineEnd);
 					}
 				}
 			} else {
-				column.addContent(new StringContent((int) width, (int) height, sb.toString()), 0);
+				column.addContent(createStringContent(value, shaped, lineStart, lineEnd, width, height), 0);
 				column.addVerticalSpace(0);
 				line = column.getCurrentLine();
 				renderer.renderColumn(column);
 
-				if (word.equals(" ")) {
-					sb = new StringBuilder();
+				if (value.charAt(start) == ' ') {
+					lineStart = end;
 					width = 0;
 					height = 0;
 				} else {
-					sb = new StringBuilder(word);
-					width = bounds.getWidth();
-					height = bounds.getHeight();
+					lineStart = start;
+					width = wordWidth;
+					height = shaped.getHeight(start, end);
 				}
+
+				lineEnd = end;
+			}
+		}
+
+		column.addContent(createStringContent(value, shaped, lineStart, lineEnd, width, height), 0);
+	}
+
+	private static StringContent createStringContent(String text, ShapedText shaped, int start, int end, double width, double height) {
+		return new StringContent((int) width, (int) height, text.substring(start, end), shaped.getGlyphRun(start, end));
+	}
+
+	/**
+	 * Returns the index up to which text starting at the given index fits on the rest of the line, found by binary
+	 * search as the width of the text only grows with its length.
+	 */
+	private static int findLineBreak(Line line, double width, ShapedText shaped, int start, int end) {
+		int low = start;
+		int high = end;
+
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+
+			if (line.canFitContent(width + shaped.getWidth(start, mid))) {
+				low = mid;
+			} else {
+				high = mid - 1;
 			}
 		}
 
-		column.addContent(new StringContent((int) width, (int) height, sb.toString()), 0);
+		return low;
+	}
+
+	private static int getTokenEnd(String text, int start) {
+		if (text.charAt(start) == ' ') {
+			return start + 1;
+		}
+
+		int space = text.indexOf(' ', start);
+
+		return (space < 0) ? text.length() : space;
 	}
 
 	private void processTab(Tab tab, Column column) {
@@ -616,7 +1263,15 @@ public class DocxRenderer implements Renderer {
 	}
 
 	private void processHyperlink(Hyperlink link, Column column) {
-		iterateContentParts(link, column);
+		iterateRuns(link, column);
+	}
+
+	private void iterateRuns(ContentAccessor ca, Column column) {
+		if (normalizingRuns) {
+			iterateContentParts(RunNormalizer.normalize(ca.getContent()).iterator(), column);
+		} else {
+			iterateContentParts(ca, column);
+		}
 	}
 
 	private void processGraphic(CTPositiveSize2D extent, GraphicData graphicData, Column column) {
@@ -635,12 +1290,33 @@ public class DocxRenderer implements Renderer {
 	}
 
 	private ParagraphStyle getStyleById(ParagraphStyle baseStyle, String styleId) {
-		return getStyle(baseStyle, main.getStyleDefinitionsPart().getStyleById(styleId));
+		if (baseStyle == styleSheet.getDefaultStyle()) {
+			int index = styleSheet.getCompiledStyleIndex(styleId);
+
+			if (index >= 0) {
+				return new ParagraphStyle(styleSheet.getCompiledStyle(index));
+			}
+		}
+
+		if (resolvedStyles == null) {
+			// not rendering
+			return getStyle(baseStyle, styleSheet.getStyle(styleId));
+		}
+
+		ParagraphStyle style = resolvedStyles.get(baseStyle, styleId);
+
+		if (style == null) {
+			style = getStyle(baseStyle, styleSheet.getStyle(styleId));
+			resolvedStyles.put(baseStyle, styleId, style);
+		}
+
+		return style;
 	}
 
 	private ParagraphStyle getStyle(ParagraphStyle baseStyle, Style style) {
 		if (style == null) {
-			return baseStyle;
+			// callers go on to change the style they get back, so never hand out the base style itself
+			return new ParagraphStyle(baseStyle);
 		}
 
 		ParagraphStyle newStyle;
@@ -658,6 +1334,25 @@ public class DocxRenderer implements Renderer {
 		return getRunStyle(newStyle, style.getRPr());
 	}
 
+	// Paragraphs that at most name a style use the compiled styles as they are, without any copying
+	private ParagraphStyle getParagraphStyle(PPr properties) {
+		ParagraphStyle style = styleSheet.getParagraphStyle(properties);
+
+		return (style == null) ? getParagraphStyle(styleSheet.getDefaultStyle(), properties) : style;
+	}
+
+	// Consecutive items of a list share their paragraph style, so the level's style is usually already resolved
+	private ParagraphStyle getLevelStyle(ParagraphStyle baseStyle, LevelDefinition level) {
+		ParagraphStyle style = listCounters.getLevelStyle(level, baseStyle);
+
+		if (style == null) {
+			style = getParagraphStyle(baseStyle, level.getParagraphProperties());
+			listCounters.putLevelStyle(level, baseStyle, style);
+		}
+
+		return style;
+	}
+
 	private ParagraphStyle getParagraphStyle(ParagraphStyle baseStyle, PPr properties) {
 		ParagraphStyle newStyle = new ParagraphStyle(baseStyle);
 
@@ -719,7 +1414,9 @@ public class DocxRenderer implements Renderer {
 		// font
 		if (runProperties.getRFonts() != null) {
 			if (runProperties.getRFonts().getAscii() != null) {
-				newStyle.setFontName(runProperties.getRFonts().getAscii());
+				String name = runProperties.getRFonts().getAscii();
+
+				newStyle.setFontName(embeddedFamilies.containsKey(name) ? embeddedFamilies.get(name) : name);
 			}
 		}
 
@@ -764,7 +1461,7 @@ public class DocxRenderer implements Renderer {
 			String strColor = runProperties.getColor().getVal();
 			Color newColor = getColor(strColor, Color.BLACK);
 
-			if (!newColor.equals(baseStyle.getColor())) {
+			if (newColor != baseStyle.getColor()) {
 				newStyle.setColor(newColor);
 			}
 		}
@@ -776,13 +1473,7 @@ public class DocxRenderer implements Renderer {
 		if (strColor == null || strColor.equals("auto")) {
 			return defaultColor;
 		} else {
-			String hex = StringUtils.leftPad(strColor, 6, '0');
-
-			return new Color(
-				Integer.valueOf(hex.substring(0, 2), 16),
-				Integer.valueOf(hex.substring(2, 4), 16),
-				Integer.valueOf(hex.substring(4, 6), 16)
-			);
+			return Colors.getInstance(strColor);
 		}
 	}
 
@@ -834,4 +1525,24 @@ public class DocxRenderer implements Renderer {
 	private int getValue(TblWidth width, int defaultValue) {
 		return (width == null) ? defaultValue : getValue(width.getW(), defaultValue);
 	}
+
+	/**
+	 * Handles an element found in the content being rendered, returning the column to carry on rendering into.
+	 */
+	private interface ContentHandler {
+		Column handle(DocxRenderer renderer, Object content, Column column);
+	}
+
+	private class HandlerContext implements ElementHandler.Context {
+		private Column column;
+
+		HandlerContext(Column column) {
+			this.column = column;
+		}
+
+		@Override
+		public void renderContent(List<?> content) {
+			column = iterateContentParts(content.iterator(), column);
+		}
+	}
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.util.List;
+
+/**
+ * Handles one type of element found in the content of a document (body, header, footer, table cell, paragraph, ...),
+ * in place of however the renderer would otherwise handle it. Elements are matched on their class, or the class of
+ * their value when wrapped in a {@link javax.xml.bind.JAXBElement}, with handlers for a superclass also applying to
+ * its subclasses.
+ *
+ * @param <T> The type of element handled
+ */
+public interface ElementHandler<T> {
+	/**
+	 * Handles an element, rendering whatever of it should be rendered through the context. The element's content
+	 * is skipped unless it is passed back to the context.
+	 *
+	 * @param element The element, unwrapped if it was a {@link javax.xml.bind.JAXBElement}
+	 * @param context The render the element is part of
+	 */
+	void handle(T element, Context context);
+
+	/**
+	 * The render an element being handled is part of.
+	 */
+	interface Context {
+		/**
+		 * Renders content, such as the children of the element being handled, as if it had been found in place of the
+		 * element.
+		 */
+		void renderContent(List<?> content);
+	}
+}
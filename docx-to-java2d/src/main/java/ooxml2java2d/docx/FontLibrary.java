@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ooxml2java2d.docx.internal.font.FontIndex;
+import ooxml2java2d.docx.internal.font.FontRegistry;
+
+/**
+ * Font files in local directories for documents to be rendered with, in place of the fonts the JDK finds on the system.
+ *
+ * The directories are indexed by family and style when the library is installed, and the index can be kept in a
+ * file so that later installs only look at font files that are new or have changed. Substitutions let documents
+ * written for fonts that aren't available use metric compatible ones instead, for example Carlito for Calibri.
+ * Installing a library affects every renderer in the JVM and should be done before any rendering starts.
+ */
+public class FontLibrary {
+	private List<File> directories;
+	private Map<String, String> substitutions = new HashMap<>();
+	private File indexFile;
+	private String fallbackFamily;
+	private boolean openTypeMetrics;
+
+	public FontLibrary(File... directories) {
+		this.directories = new ArrayList<>(Arrays.asList(directories));
+	}
+
+	/**
+	 * Sets the file the index of the font directories is kept in between installs.
+	 */
+	public void setIndexFile(File indexFile) {
+		this.indexFile = indexFile;
+	}
+
+	/**
+	 * Renders text in the given family with the substitute family instead.
+	 */
+	public void addSubstitution(String family, String substitute) {
+		substitutions.put(family, substitute);
+	}
+
+	/**
+	 * Adds substitutions of the common Microsoft Office fonts with their metric compatible Croscore and Liberation
+	 * counterparts.
+	 */
+	public void addDefaultSubstitutions() {
+		addSubstitution("Calibri", "Carlito");
+		addSubstitution("Cambria", "Caladea");
+		addSubstitution("Arial", "Liberation Sans");
+		addSubstitution("Times New Roman", "Liberation Serif");
+		addSubstitution("Courier New", "Liberation Mono");
+	}
+
+	/**
+	 * Sets the family used for any family that isn't in the library, rather than leaving the JDK to find a font.
+	 */
+	public void setFallbackFamily(String fallbackFamily) {
+		this.fallbackFamily = fallbackFamily;
+	}
+
+	/**
+	 * Sets whether text is measured from the metrics tables of the library's font files rather than by the JDK, which
+	 * lets renders running in parallel measure text without contending for the JDK's font system. Text the tables
+	 * can't measure, such as complex scripts, is still measured by the JDK. Off by default.
+	 */
+	public void setOpenTypeMetrics(boolean openTypeMetrics) {
+		this.openTypeMetrics = openTypeMetrics;
+	}
+
+	/**
+	 * Indexes the font directories, saving the index if there is an index file, and makes all renderers use this
+	 * library from now on.
+	 */
+	public void install() throws IOException {
+		FontIndex index = FontIndex.load(indexFile, directories);
+
+		FontRegistry.getShared().configure(index, substitutions, fallbackFamily, openTypeMetrics);
+	}
+
+	/**
+	 * Goes back to rendering with the fonts the JDK finds on the system.
+	 */
+	public static void uninstall() {
+		FontRegistry.getShared().configure(null, new HashMap<String, String>(), null, false);
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+/**
+ * Controls how the parts of a document package are read when it's loaded.
+ */
+public enum LoadMode {
+	/**
+	 * Every part of the package is decompressed into memory as soon as the document is loaded.
+	 */
+	EAGER,
+
+	/**
+	 * The document file is memory mapped and each part is only decompressed and unmarshalled when rendering first
+	 * needs it. Parts that are never rendered, such as comments or unused media, cost almost nothing.
+	 */
+	LAZY,
+
+	/**
+	 * As {@link #LAZY}, but the parts needed for rendering are then unmarshalled straight away, with headers, footers,
+	 * styles, numbering, settings, the font table and the theme handled concurrently on a shared thread pool while the
+	 * main document part is unmarshalled. Loading takes about as long as the largest part rather than all of them.
+	 */
+	PARALLEL
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import ooxml2java2d.docx.internal.LruCache;
+import ooxml2java2d.docx.internal.io.ContentDigest;
+import ooxml2java2d.docx.internal.io.PackageLoader;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+
+/**
+ * A least recently used cache of loaded documents, keyed by a hash of their content, so that rendering the same
+ * document again skips unzipping and unmarshalling it.
+ *
+ * The cache can be shared between threads. Renderers created from the same cached document share its parts, which
+ * rendering loads and adds to as it goes, so their renders take turns rather than running at the same time.
+ */
+public class PackageCache {
+	private LruCache<ByteBuffer, WordprocessingMLPackage> packages;
+
+	/**
+	 * @param maxEntries The maximum number of documents to keep, after which the least recently used is evicted
+	 */
+	public PackageCache(int maxEntries) {
+		this.packages = new LruCache<>(maxEntries);
+	}
+
+	public long getHitCount() {
+		return packages.getHitCount();
+	}
+
+	public long getMissCount() {
+		return packages.getMissCount();
+	}
+
+	public int size() {
+		return packages.size();
+	}
+
+	public void clear() {
+		packages.clear();
+	}
+
+	@Override
+	public String toString() {
+		return packages.toString();
+	}
+
+	WordprocessingMLPackage get(File docx) throws IOException {
+		// parts are loaded lazily from the mapping, so the file mustn't change while the document is cached
+		return get(PackageLoader.map(docx));
+	}
+
+	WordprocessingMLPackage get(ByteBuffer docx) throws IOException {
+		ByteBuffer key = new ContentDigest().update(docx).toKey();
+		WordprocessingMLPackage word = packages.get(key);
+
+		if (word == null) {
+			// loaded outside the cache's lock so other documents aren't held up, at worst the same document is loaded twice
+			word = PackageLoader.load(docx);
+			packages.put(key, word);
+		}
+
+		return word;
+	}
+}
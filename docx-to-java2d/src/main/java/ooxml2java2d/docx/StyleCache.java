@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.nio.ByteBuffer;
+
+import ooxml2java2d.docx.internal.LruCache;
+import ooxml2java2d.docx.internal.StyleSheet;
+
+/**
+ * A least recently used cache of the style and numbering definitions compiled for rendering, keyed by a hash of the
+ * parts they came from. Documents created from the same template share identical parts, so a cache shared by their
+ * renderers means the definitions are only resolved once. The cache is safe to share between threads.
+ *
+ * @see DocxRenderer#setStyleCache(StyleCache)
+ */
+public class StyleCache {
+	private LruCache<ByteBuffer, StyleSheet> styleSheets;
+
+	/**
+	 * @param maxEntries The maximum number of style sheets to keep, after which the least recently used is evicted
+	 */
+	public StyleCache(int maxEntries) {
+		this.styleSheets = new LruCache<>(maxEntries);
+	}
+
+	public long getHitCount() {
+		return styleSheets.getHitCount();
+	}
+
+	public long getMissCount() {
+		return styleSheets.getMissCount();
+	}
+
+	public int size() {
+		return styleSheets.size();
+	}
+
+	public void clear() {
+		styleSheets.clear();
+	}
+
+	@Override
+	public String toString() {
+		return styleSheets.toString();
+	}
+
+	StyleSheet get(ByteBuffer key) {
+		return styleSheets.get(key);
+	}
+
+	void put(ByteBuffer key, StyleSheet styleSheet) {
+		styleSheets.put(key, styleSheet);
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pool of daemon threads that work is handed to in the background, such as unmarshalling the parts of a document
+ * in parallel or preloading fonts, shared so that a JVM only ever starts the one pool.
+ */
+public final class BackgroundExecutor {
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+		Runtime.getRuntime().availableProcessors(),
+		new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "docx-background-" + count.incrementAndGet());
+
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		}
+	);
+
+	private BackgroundExecutor() { }
+
+	public static ExecutorService get() {
+		return EXECUTOR;
+	}
+}
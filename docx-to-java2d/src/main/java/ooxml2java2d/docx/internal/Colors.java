@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.awt.Color;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Interns the colors used by documents, so each color is parsed and created once per JVM however many runs use it,
+ * and colors can be compared by reference.
+ *
+ * Only so many colors are interned, after which any other color is created each time it's asked for, so documents
+ * with an endless variety of colors can't fill the heap. Such colors then only fail to match by reference.
+ */
+public final class Colors {
+	public static final int MAX_INSTANCES = 4096;
+	private static final ConcurrentMap<String, Color> INSTANCES = new ConcurrentHashMap<>();
+
+	private Colors() { }
+
+	/**
+	 * Returns the color for a hex RRGGBB value, as used by the color attributes of WordprocessingML.
+	 */
+	public static Color getInstance(String hex) {
+		// so that the same color is interned just once however it's written
+		String padded = StringUtils.leftPad(hex, 6, '0').toUpperCase(Locale.ENGLISH);
+		Color color = INSTANCES.get(padded);
+
+		if (color == null) {
+			color = new Color(
+				Integer.valueOf(padded.substring(0, 2), 16),
+				Integer.valueOf(padded.substring(2, 4), 16),
+				Integer.valueOf(padded.substring(4, 6), 16)
+			);
+
+			if (color.equals(Color.BLACK)) {
+				color = Color.BLACK;
+			}
+
+			// racing threads may take the table a little past its limit, which doesn't matter
+			if (INSTANCES.size() < MAX_INSTANCES) {
+				Color existing = INSTANCES.putIfAbsent(padded, color);
+
+				if (existing != null) {
+					color = existing;
+				}
+			}
+		}
+
+		return color;
+	}
+}
@@ -20,68 +20,109 @@ import java.awt.Font;
 import java.awt.font.FontRenderContext;
 import java.awt.font.TextAttribute;
 import java.awt.geom.Rectangle2D;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
+import ooxml2java2d.docx.internal.font.AdvanceTable;
+import ooxml2java2d.docx.internal.font.FontRegistry;
+import ooxml2java2d.docx.internal.font.OpenTypeMetrics;
+import ooxml2java2d.docx.internal.font.OpenTypeText;
+import ooxml2java2d.docx.internal.font.ShapedText;
+
+import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 
-public class FontConfig {
-	private Font font = new Font(Font.SERIF, Font.PLAIN, 1);
-	private String name = font.getName();
-	private float size;
-	private Set<FontStyle> styles = new HashSet<>();
+/**
+ * An immutable font name, size and set of styles along with the {@link Font} they describe.
+ *
+ * Instances are interned, so there is only ever one per combination of name, size and styles in the JVM, each font is
+ * derived just once and two configs are equal only if they are the same instance. Instances nothing uses any more are
+ * left to be garbage collected, and recreated if they are needed again. When the {@link FontRegistry} is reconfigured,
+ * e.g. by installing a {@link ooxml2java2d.docx.FontLibrary}, each instance looks its font up again the next time it's
+ * used, so instances held on to elsewhere (such as by cached style sheets) never go stale.
+ *
+ * When the font comes from a {@link ooxml2java2d.docx.FontLibrary} with OpenType metrics turned on, text is measured
+ * from the tables of its font file, and the {@link Font} itself is only created once something is drawn in it or has to
+ * be measured by the JDK.
+ */
+public final class FontConfig {
+	private static final ConcurrentMap<Key, InstanceReference> INSTANCES = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<FontConfig> CLEARED_INSTANCES = new ReferenceQueue<>();
+	private static final AtomicLong NEXT_ID = new AtomicLong();
+	private static final FontConfig DEFAULT_INSTANCE = getInstance(Font.SERIF, 0, EnumSet.noneOf(FontStyle.class));
+	private final String name;
+	private final float size;
+	private final Set<FontStyle> styles;
+	// what the font currently resolves to, replaced whenever the font registry has been reconfigured since
+	private volatile Resolution resolution;
+
+	private FontConfig(String name, float size, Set<FontStyle> styles) {
+		this.name = name;
+		this.size = size;
+		this.styles = Collections.unmodifiableSet(styles);
+	}
+
+	public static FontConfig getInstance(String name, float size, Set<FontStyle> styles) {
+		Key key = new Key(name, size, styles);
+
+		removeClearedInstances();
+
+		while (true) {
+			InstanceReference reference = INSTANCES.get(key);
+			FontConfig fontConfig = (reference == null) ? null : reference.get();
+
+			if (fontConfig != null) {
+				return fontConfig;
+			}
+
+			EnumSet<FontStyle> copy = EnumSet.noneOf(FontStyle.class);
 
-	public FontConfig() { }
+			copy.addAll(styles);
+			fontConfig = new FontConfig(name, size, copy);
 
-	public FontConfig(FontConfig fontConfig) {
-		setName(fontConfig.getName());
-		setSize(fontConfig.getSize());
+			InstanceReference created = new InstanceReference(new Key(name, size, copy), fontConfig);
 
-		for (FontStyle fs : fontConfig.getStyles()) {
-			enableStyle(fs);
+			// otherwise another thread got there first, so go with its instance
+			if ((reference == null) ? INSTANCES.putIfAbsent(created.key, created) == null : INSTANCES.replace(created.key, reference, created)) {
+				return fontConfig;
+			}
 		}
 	}
 
-	public void setName(String name) {
-		if (!font.getName().equals(name)) {
-			this.name = name;
-			this.font = new Font(name, font.getStyle(), font.getSize());
-			setSize(size);
-		}
+	/**
+	 * The font used for text without any formatting.
+	 */
+	public static FontConfig getDefault() {
+		return DEFAULT_INSTANCE;
 	}
 
-	public void setSize(float size) {
-		this.size = size;
-		this.font = font.deriveFont(size);
+	public FontConfig withName(String name) {
+		return this.name.equals(name) ? this : getInstance(name, size, styles);
 	}
 
-	public void enableStyle(FontStyle style) {
-		if (!hasStyle(style)) {
-			styles.add(style);
+	public FontConfig withSize(float size) {
+		return (this.size == size) ? this : getInstance(name, size, styles);
+	}
 
-			switch (style) {
-				case BOLD:
-					font = font.deriveFont(Font.BOLD);
-				break;
-				case ITALIC:
-					font = font.deriveFont(Font.ITALIC);
-				break;
-				case STRIKETHROUGH:
-					font = setAttribute(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON);
-				break;
-				case SUPERSCRIPT:
-					font = setAttribute(TextAttribute.SUPERSCRIPT, TextAttribute.SUPERSCRIPT_SUPER);
-				break;
-				case UNDERLINE:
-					font = setAttribute(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON);
-				break;
-			}	
+	public FontConfig withStyle(FontStyle style) {
+		if (hasStyle(style)) {
+			return this;
 		}
+
+		EnumSet<FontStyle> newStyles = EnumSet.of(style);
+
+		newStyles.addAll(styles);
+
+		return getInstance(name, size, newStyles);
 	}
 
 	public String getName() {
@@ -93,55 +134,150 @@ public class FontConfig {
 	}
 
 	public Set<FontStyle> getStyles() {
-		return Collections.unmodifiableSet(styles);
+		return styles;
 	}
 
+	/**
+	 * Returns the bounds of the text in this font, which must not be modified as they may be shared through the
+	 * {@link WordMetricsCache}.
+	 */
 	public Rectangle2D getStringBoxSize(String text) {
-		return font.getStringBounds(text, new FontRenderContext(font.getTransform(), true, true));
+		WordMetricsCache cache = WordMetricsCache.getShared();
+		Rectangle2D bounds = cache.get(this, text);
+
+		if (bounds == null) {
+			OpenTypeMetrics metrics = getResolution().metrics;
+
+			bounds = (metrics == null) ? null : metrics.getStringBounds(text, size, isDrawnAsGlyphs());
+
+			if (bounds == null) {
+				bounds = getFont().getStringBounds(text, getFontRenderContext());
+			}
+
+			cache.put(this, text, bounds);
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Shapes a run of text in this font, so that its words and the points to break it at can be measured without
+	 * laying it out again. Simple text is shaped from the tables of the font file or from the font's advance table, and
+	 * any word the advance table doesn't cover is measured on its own through the {@link WordMetricsCache}.
+	 */
+	public ShapedText shape(String text) {
+		Resolution current = getResolution();
+		OpenTypeMetrics metrics = current.metrics;
+
+		if (metrics != null) {
+			boolean drawnAsGlyphs = isDrawnAsGlyphs();
+			int[] glyphIds = new int[text.length()];
+			double[] offsets = metrics.getOffsets(text, glyphIds, size, drawnAsGlyphs);
+
+			if (offsets != null) {
+				return new OpenTypeText(drawnAsGlyphs, glyphIds, offsets, metrics.getHeight(size));
+			}
+		}
+
+		AdvanceTable advances = current.getAdvanceTable();
+		ShapedText shaped = (advances == null) ? null : advances.shape(text);
+
+		if (shaped == null) {
+			shaped = new MeasuredText(this, text, advances);
+		}
+
+		return shaped;
 	}
 
 	public Font getFont() {
-		return font;
+		return getResolution().getFont();
+	}
+
+	/**
+	 * The context text in this font is measured and drawn in.
+	 */
+	public FontRenderContext getFontRenderContext() {
+		return getResolution().getFontRenderContext();
+	}
+
+	/**
+	 * Whether text in this font is measured from the tables of its font file rather than by the JDK.
+	 */
+	public boolean hasOpenTypeMetrics() {
+		return getResolution().metrics != null;
+	}
+
+	/**
+	 * Returns a number that identifies the font this instance currently resolves to, and that nothing else will ever
+	 * have, so that caches can key on the instance without keeping it from being garbage collected or mixing up fonts
+	 * from before and after the font registry was reconfigured.
+	 */
+	long getId() {
+		return getResolution().id;
 	}
 
 	public boolean hasStyle(FontStyle style) {
 		return styles.contains(style);
 	}
 
-	private Font setAttribute(TextAttribute attribute, Object value) {
+	// decorations are only drawn along with strings, which aren't kerned
+	private boolean isDrawnAsGlyphs() {
+		return !hasStyle(FontStyle.UNDERLINE) && !hasStyle(FontStyle.STRIKETHROUGH);
+	}
+
+	private Resolution getResolution() {
+		Resolution current = resolution;
+		int generation = FontRegistry.getShared().getGeneration();
+
+		if (current == null || current.generation != generation) {
+			// racing threads just resolve the same font
+			current = new Resolution(generation);
+			resolution = current;
+		}
+
+		return current;
+	}
+
+	private static void removeClearedInstances() {
+		Reference<? extends FontConfig> reference;
+
+		while ((reference = CLEARED_INSTANCES.poll()) != null) {
+			INSTANCES.remove(((InstanceReference) reference).key, reference);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Font createFont(String name, float size, Set<FontStyle> styles) {
+		Font font = FontRegistry.getShared().getFont(name, getAwtStyle(styles)).deriveFont(size);
 		Map attributes = font.getAttributes();
 
-		attributes.put(attribute, value);
+		if (styles.contains(FontStyle.STRIKETHROUGH)) {
+			attributes.put(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON);
+		}
+
+		if (styles.contains(FontStyle.SUPERSCRIPT)) {
+			attributes.put(TextAttribute.SUPERSCRIPT, TextAttribute.SUPERSCRIPT_SUPER);
+		}
+
+		if (styles.contains(FontStyle.UNDERLINE)) {
+			attributes.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON);
+		}
 
 		return font.deriveFont(attributes);
 	}
 
-	@Override
-	public int hashCode() {
-		return new HashCodeBuilder(31, 15)
-			.append(name)
-			.append(size)
-			.append(styles)
-			.toHashCode();
-	}
+	private static int getAwtStyle(Set<FontStyle> styles) {
+		int awtStyle = Font.PLAIN;
 
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null) {
-			return false;
-		} else if (obj == this) {
-			return true;
-		} else if (obj.getClass() != getClass()) {
-			return false;
+		if (styles.contains(FontStyle.BOLD)) {
+			awtStyle |= Font.BOLD;
 		}
 
-		FontConfig fc = (FontConfig) obj;
+		if (styles.contains(FontStyle.ITALIC)) {
+			awtStyle |= Font.ITALIC;
+		}
 
-		return new EqualsBuilder()
-			.append(name, fc.name)
-			.append(size, fc.size)
-			.append(styles, fc.styles)
-			.isEquals();
+		return awtStyle;
 	}
 
 	@Override
@@ -152,4 +288,100 @@ public class FontConfig {
 			.append("styles", styles)
 			.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The font a config resolves to with the font registry as it was configured at the time.
+	 */
+	private final class Resolution {
+		private final long id = NEXT_ID.getAndIncrement();
+		private final int generation;
+		private final OpenTypeMetrics metrics;
+		private volatile Font font;
+		private volatile FontRenderContext fontRenderContext;
+		// built on first use, as most configs are only steps on the way to resolving a style
+		private volatile AdvanceTable advanceTable;
+		private volatile boolean advanceTableCreated;
+
+		Resolution(int generation) {
+			this.generation = generation;
+			this.metrics = styles.contains(FontStyle.SUPERSCRIPT) ? null : FontRegistry.getShared().getMetrics(name, getAwtStyle(styles));
+		}
+
+		Font getFont() {
+			Font current = font;
+
+			if (current == null) {
+				synchronized (this) {
+					if (font == null) {
+						Font created = createFont(name, size, styles);
+
+						// set before the font, which is what unsynchronized readers check
+						fontRenderContext = new FontRenderContext(created.getTransform(), true, true);
+						font = created;
+					}
+
+					current = font;
+				}
+			}
+
+			return current;
+		}
+
+		FontRenderContext getFontRenderContext() {
+			getFont();
+
+			return fontRenderContext;
+		}
+
+		AdvanceTable getAdvanceTable() {
+			if (!advanceTableCreated) {
+				// racing threads just build identical tables
+				advanceTable = AdvanceTable.create(getFont(), getFontRenderContext());
+				advanceTableCreated = true;
+			}
+
+			return advanceTable;
+		}
+	}
+
+	/**
+	 * Holds an instance only as long as something else uses it, so that the table of instances doesn't keep every
+	 * config a JVM has ever seen.
+	 */
+	private static class InstanceReference extends WeakReference<FontConfig> {
+		private final Key key;
+
+		InstanceReference(Key key, FontConfig fontConfig) {
+			super(fontConfig, CLEARED_INSTANCES);
+			this.key = key;
+		}
+	}
+
+	private static class Key {
+		private final String name;
+		private final float size;
+		private final Set<FontStyle> styles;
+
+		Key(String name, float size, Set<FontStyle> styles) {
+			this.name = name;
+			this.size = size;
+			this.styles = styles;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+
+			return ObjectUtils.equals(name, other.name) && Float.compare(size, other.size) == 0 && styles.equals(other.styles);
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * ObjectUtils.hashCode(name) + Float.floatToIntBits(size)) * 31 + styles.hashCode();
+		}
+	}
+}
@@ -42,6 +42,7 @@ public class GraphicsRenderer {
 	private PageInitiationAdapter initiation;
 	private Graphics2D g2;
 	private HAlignment hAlignment = HAlignment.LEFT;
+	private FontConfig fontConfig;
 	private int yOffset;
 	private int pageWidth;
 	private int pageHeight;
@@ -234,7 +235,12 @@ public class GraphicsRenderer {
 				if (obj instanceof StringContent) {
 					StringContent sc = (StringContent) obj;
 
-					g2.drawString(sc.getText(), xOffset, yOffset);
+					if (sc.getGlyphRun() == null || fontConfig == null) {
+						g2.drawString(sc.getText(), xOffset, yOffset);
+					} else {
+						// the glyphs were measured in the current font, as every run sets its font before its text
+						g2.drawGlyphVector(sc.getGlyphRun().createGlyphVector(fontConfig.getFont(), fontConfig.getFontRenderContext()), xOffset, yOffset);
+					}
 				} else if (obj instanceof ImageContent) {
 					ImageContent di = (ImageContent) obj;
 
@@ -253,9 +259,9 @@ public class GraphicsRenderer {
 			} else if (obj instanceof Color) {
 				g2.setColor((Color) obj);
 			} else if (obj instanceof FontConfig) {
-				FontConfig fc = (FontConfig) obj;
+				fontConfig = (FontConfig) obj;
 
-				g2.setFont(fc.getFont());
+				g2.setFont(fontConfig.getFont());
 			} else {
 				LOG.debug("Unhandled render object " + obj.getClass());
 			}
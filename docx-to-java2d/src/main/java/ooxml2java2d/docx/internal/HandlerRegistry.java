@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps classes to the handlers for their instances, where a handler registered for a class also handles its
+ * subclasses. The handler for each class is looked up once and then found straight from the class, however many
+ * instances of it there are.
+ *
+ * @param <H> The type of handler
+ */
+public class HandlerRegistry<H> {
+	private static final Logger LOG = LoggerFactory.getLogger(HandlerRegistry.class);
+	private final Map<Class<?>, H> handlers;
+	private final H defaultHandler;
+	private volatile ClassValue<H> lookup;
+
+	/**
+	 * @param defaultHandler The handler for classes that nothing has been registered for
+	 */
+	public HandlerRegistry(H defaultHandler) {
+		this.handlers = new HashMap<>();
+		this.defaultHandler = defaultHandler;
+		this.lookup = createLookup();
+	}
+
+	/**
+	 * Creates a registry starting out with the same handlers as another.
+	 */
+	public HandlerRegistry(HandlerRegistry<H> registry) {
+		synchronized (registry) {
+			this.handlers = new HashMap<>(registry.handlers);
+		}
+
+		this.defaultHandler = registry.defaultHandler;
+		this.lookup = createLookup();
+	}
+
+	public synchronized void register(Class<?> type, H handler) {
+		handlers.put(type, handler);
+
+		// classes already looked up may now have a different handler
+		lookup = createLookup();
+	}
+
+	public H get(Class<?> type) {
+		return lookup.get(type);
+	}
+
+	private synchronized ClassValue<H> createLookup() {
+		final Map<Class<?>, H> registered = new HashMap<>(handlers);
+
+		return new ClassValue<H>() {
+			@Override
+			protected H computeValue(Class<?> type) {
+				for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+					H handler = registered.get(c);
+
+					if (handler != null) {
+						return handler;
+					}
+				}
+
+				LOG.debug("Unhandled element type " + type.getName());
+
+				return defaultHandler;
+			}
+		};
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * A thread safe, size bounded map that evicts the least recently used entry and counts lookup hits and misses.
+ */
+public class LruCache<K, V> {
+	private final Map<K, V> entries;
+	private long hits;
+	private long misses;
+
+	public LruCache(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+		}
+
+		this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached value, or null if there isn't one, counting the lookup as a hit or a miss.
+	 */
+	public synchronized V get(K key) {
+		V value = entries.get(key);
+
+		if (value == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+
+		return value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, value);
+	}
+
+	/**
+	 * Caches a value unless there already is one for the key, returning the value already cached or null if there
+	 * wasn't one. This isn't counted as a lookup.
+	 */
+	public synchronized V putIfAbsent(K key, V value) {
+		V existing = entries.get(key);
+
+		if (existing == null) {
+			entries.put(key, value);
+		}
+
+		return existing;
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+			.append("size", entries.size())
+			.append("hits", hits)
+			.append("misses", misses)
+			.toString();
+	}
+}
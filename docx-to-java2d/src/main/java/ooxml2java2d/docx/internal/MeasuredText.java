@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import ooxml2java2d.docx.internal.font.AdvanceTable;
+import ooxml2java2d.docx.internal.font.GlyphRun;
+import ooxml2java2d.docx.internal.font.ShapedText;
+
+/**
+ * Text that can't be shaped from a table in full, such as complex scripts or text in a kerned font. Words that the
+ * font's advance table covers are still shaped from it, and the rest are measured a word at a time through the
+ * {@link WordMetricsCache} as the same words keep turning up.
+ */
+final class MeasuredText implements ShapedText {
+	private final FontConfig fontConfig;
+	private final String text;
+	// a glyph of -1 and offsets of NaN mark the parts of words that were measured rather than shaped
+	private final int[] glyphIds;
+	private final double[] offsets;
+	// the height of the measured word each character belongs to, or 0 for characters that were shaped
+	private final double[] heights;
+	private final double height;
+
+	/**
+	 * @param advances The advance table of the font, or null to measure every word
+	 */
+	MeasuredText(FontConfig fontConfig, String text, AdvanceTable advances) {
+		this.fontConfig = fontConfig;
+		this.text = text;
+		this.glyphIds = new int[text.length()];
+		this.offsets = new double[text.length() + 1];
+		this.heights = new double[text.length()];
+		this.height = (advances == null) ? fontConfig.getStringBoxSize("").getHeight() : advances.getHeight();
+
+		int start = 0;
+
+		// words and the single spaces between them, as they are laid out
+		while (start < text.length()) {
+			int end = (text.charAt(start) == ' ') ? start + 1 : text.indexOf(' ', start);
+
+			if (end < 0) {
+				end = text.length();
+			}
+
+			if (advances == null || !advances.shape(text, start, end, glyphIds, offsets)) {
+				Rectangle2D bounds = fontConfig.getStringBoxSize(text.substring(start, end));
+
+				Arrays.fill(glyphIds, start, end, -1);
+				Arrays.fill(offsets, start + 1, end, Double.NaN);
+				offsets[end] = offsets[start] + bounds.getWidth();
+				Arrays.fill(heights, start, end, bounds.getHeight());
+			}
+
+			start = end;
+		}
+	}
+
+	@Override
+	public double getWidth(int start, int end) {
+		if (start == end) {
+			return 0;
+		} else if (Double.isNaN(offsets[start]) || Double.isNaN(offsets[end])) {
+			// part of a measured word
+			return fontConfig.getStringBoxSize(text.substring(start, end)).getWidth();
+		}
+
+		return offsets[end] - offsets[start];
+	}
+
+	@Override
+	public double getHeight(int start, int end) {
+		double maxHeight = height;
+
+		// only the words on the line count, a taller word elsewhere in the run doesn't make every line taller
+		for (int i = start; i < end; i++) {
+			maxHeight = Math.max(maxHeight, heights[i]);
+		}
+
+		return maxHeight;
+	}
+
+	@Override
+	public GlyphRun getGlyphRun(int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (glyphIds[i] < 0) {
+				// drawn as strings, which takes care of font fallback, bidi text and decorations such as underlines
+				return null;
+			}
+		}
+
+		return GlyphRun.create(glyphIds, offsets, start, end);
+	}
+}
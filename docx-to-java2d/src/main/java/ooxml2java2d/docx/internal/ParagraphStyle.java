@@ -30,8 +30,9 @@ public class ParagraphStyle {
 	private int indentRight;
 	private int indentHanging;
 	private Color color = Color.BLACK;
-	private FontConfig fontConfig = new FontConfig();
+	private FontConfig fontConfig = FontConfig.getDefault();
 	private HAlignment hAlignment = HAlignment.LEFT;
+	private boolean readOnly;
 
 	public ParagraphStyle() { }
 
@@ -43,52 +44,63 @@ public class ParagraphStyle {
 		this.indentRight = baseStyle.getIndentRight();
 		this.indentHanging = baseStyle.getIndentHanging();
 		this.color = baseStyle.getColor();
-		this.fontConfig = new FontConfig(baseStyle.getFontConfig());
+		this.fontConfig = baseStyle.getFontConfig();
 		this.hAlignment = baseStyle.getHAlignment();
 	}
 
 	public void setLineSpacing(int lineSpacing) {
+		checkModifiable();
 		this.lineSpacing = lineSpacing;
 	}
 
 	public void setSpaceBefore(int spaceBefore) {
+		checkModifiable();
 		this.spaceBefore = spaceBefore;
 	}
 
 	public void setSpaceAfter(int spaceAfter) {
+		checkModifiable();
 		this.spaceAfter = spaceAfter;
 	}
 
 	public void setIndentLeft(int indentLeft) {
+		checkModifiable();
 		this.indentLeft = indentLeft;
 	}
 
 	public void setIndentRight(int indentRight) {
+		checkModifiable();
 		this.indentRight = indentRight;
 	}
 
 	public void setIndentHanging(int indentHanging) {
+		checkModifiable();
 		this.indentHanging = indentHanging;
 	}
 
 	public void setColor(Color color) {
+		checkModifiable();
 		this.color = color;
 	}
 
 	public void setFontName(String name) {
-		fontConfig.setName(name);
+		checkModifiable();
+		fontConfig = fontConfig.withName(name);
 	}
 
 	public void setFontSize(float size) {
-		fontConfig.setSize(size);
+		checkModifiable();
+		fontConfig = fontConfig.withSize(size);
 	}
 
 	public void setHAlignment(HAlignment hAlignment) {
+		checkModifiable();
 		this.hAlignment = hAlignment;
 	}
 
 	public void enableFontStyle(FontStyle style) {
-		fontConfig.enableStyle(style);
+		checkModifiable();
+		fontConfig = fontConfig.withStyle(style);
 	}
 
 	public int getLineSpacing() {
@@ -127,10 +139,28 @@ public class ParagraphStyle {
 		return hAlignment;
 	}
 
+	/**
+	 * Stops the style from being modified any further, for styles that are shared rather than copied. Copies of a
+	 * read-only style can be modified.
+	 */
+	public void setReadOnly() {
+		readOnly = true;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
 	public Rectangle2D getStringBoxSize(String text) {
 		return fontConfig.getStringBoxSize(text);
 	}
 
+	private void checkModifiable() {
+		if (readOnly) {
+			throw new IllegalStateException("Style is shared and must be copied before being modified");
+		}
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
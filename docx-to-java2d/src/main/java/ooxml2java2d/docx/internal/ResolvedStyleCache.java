@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import org.apache.commons.lang.ObjectUtils;
+
+/**
+ * Remembers the style that results from applying a style (and the styles it is based on) to a base style,
+ * so that each combination of base style and style id only has to be resolved once per render.
+ *
+ * Base styles are matched by identity, as styles are mutable and the same base style is reused for the
+ * paragraphs that share it. Resolved styles are handed out as copies so they can be changed freely.
+ */
+public class ResolvedStyleCache {
+	private static final int MAX_ENTRIES = 1024;
+	private LruCache<Key, ParagraphStyle> styles = new LruCache<>(MAX_ENTRIES);
+
+	/**
+	 * Returns a copy of the resolved style, or null if it hasn't been resolved yet.
+	 */
+	public ParagraphStyle get(ParagraphStyle baseStyle, String styleId) {
+		ParagraphStyle style = styles.get(new Key(baseStyle, styleId));
+
+		return style == null ? null : new ParagraphStyle(style);
+	}
+
+	public void put(ParagraphStyle baseStyle, String styleId, ParagraphStyle style) {
+		styles.put(new Key(baseStyle, styleId), new ParagraphStyle(style));
+	}
+
+	public void clear() {
+		styles.clear();
+	}
+
+	public long getHitCount() {
+		return styles.getHitCount();
+	}
+
+	public long getMissCount() {
+		return styles.getMissCount();
+	}
+
+	@Override
+	public String toString() {
+		return styles.toString();
+	}
+
+	private static class Key {
+		private final ParagraphStyle baseStyle;
+		private final String styleId;
+
+		Key(ParagraphStyle baseStyle, String styleId) {
+			this.baseStyle = baseStyle;
+			this.styleId = styleId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+
+			return baseStyle == other.baseStyle && ObjectUtils.equals(styleId, other.styleId);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(baseStyle) + ObjectUtils.hashCode(styleId);
+		}
+	}
+}
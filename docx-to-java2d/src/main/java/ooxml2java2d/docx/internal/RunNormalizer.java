@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.docx4j.wml.CTBookmark;
+import org.docx4j.wml.CTMarkupRange;
+import org.docx4j.wml.CommentRangeEnd;
+import org.docx4j.wml.CommentRangeStart;
+import org.docx4j.wml.ProofErr;
+import org.docx4j.wml.R;
+import org.docx4j.wml.RPr;
+import org.docx4j.wml.STVerticalAlignRun;
+import org.docx4j.wml.UnderlineEnumeration;
+
+/**
+ * Simplifies the content of a paragraph before it is laid out. Editing markers that have no effect on rendering
+ * (proofing errors, bookmarks and comment ranges) are dropped, and adjacent runs whose properties render the same
+ * are merged so their style only has to be resolved once. Properties that aren't rendered, such as revision ids
+ * and language, are ignored when comparing runs.
+ *
+ * The document itself isn't changed; merged runs are new objects.
+ */
+public final class RunNormalizer {
+	private RunNormalizer() { }
+
+	public static List<Object> normalize(List<Object> content) {
+		List<Object> normalized = new ArrayList<>(content.size());
+		R last = null;
+		boolean copied = false;
+
+		for (Object obj : content) {
+			if (isNoise(obj)) {
+				continue;
+			}
+
+			R run = (obj instanceof R) ? (R) obj : null;
+
+			// Runs with no content are left alone, as an empty run with properties takes up vertical space
+			if (run == null || run.getContent().isEmpty()) {
+				normalized.add(obj);
+				last = null;
+			} else if (last != null && isSameFormatting(last.getRPr(), run.getRPr())) {
+				if (!copied) {
+					// copy the run being merged into, rather than changing the document
+					last = copy(last);
+					normalized.set(normalized.size() - 1, last);
+					copied = true;
+				}
+
+				last.getContent().addAll(run.getContent());
+			} else {
+				normalized.add(run);
+				last = run;
+				copied = false;
+			}
+		}
+
+		return normalized;
+	}
+
+	/**
+	 * Whether the two run properties would produce the same style, comparing only the properties that
+	 * {@link ooxml2java2d.docx.DocxRenderer} applies.
+	 */
+	public static boolean isSameFormatting(RPr a, RPr b) {
+		return a == b || (
+			ObjectUtils.equals(getFontName(a), getFontName(b))
+			&& ObjectUtils.equals(getFontSize(a), getFontSize(b))
+			&& isBold(a) == isBold(b)
+			&& isItalic(a) == isItalic(b)
+			&& isStrike(a) == isStrike(b)
+			&& isUnderline(a) == isUnderline(b)
+			&& isSuperscript(a) == isSuperscript(b)
+			&& ObjectUtils.equals(getColor(a), getColor(b))
+		);
+	}
+
+	private static boolean isNoise(Object obj) {
+		if (obj instanceof JAXBElement) {
+			Class<?> type = ((JAXBElement<?>) obj).getDeclaredType();
+
+			// bookmark starts and ends
+			return type.equals(CTBookmark.class) || type.equals(CTMarkupRange.class);
+		}
+
+		return obj instanceof ProofErr || obj instanceof CommentRangeStart || obj instanceof CommentRangeEnd;
+	}
+
+	private static R copy(R run) {
+		R copy = new R();
+
+		copy.setRPr(run.getRPr());
+		copy.setParent(run.getParent());
+		copy.getContent().addAll(run.getContent());
+
+		return copy;
+	}
+
+	private static String getFontName(RPr rPr) {
+		return (rPr == null || rPr.getRFonts() == null) ? null : rPr.getRFonts().getAscii();
+	}
+
+	private static Object getFontSize(RPr rPr) {
+		if (rPr == null) {
+			return null;
+		} else if (rPr.getSz() != null) {
+			return rPr.getSz().getVal();
+		} else if (rPr.getSzCs() != null) {
+			return rPr.getSzCs().getVal();
+		}
+
+		return null;
+	}
+
+	private static boolean isBold(RPr rPr) {
+		return rPr != null && rPr.getB() != null;
+	}
+
+	private static boolean isItalic(RPr rPr) {
+		return rPr != null && rPr.getI() != null;
+	}
+
+	private static boolean isStrike(RPr rPr) {
+		return rPr != null && rPr.getStrike() != null;
+	}
+
+	private static boolean isUnderline(RPr rPr) {
+		return rPr != null && rPr.getU() != null && UnderlineEnumeration.SINGLE.equals(rPr.getU().getVal());
+	}
+
+	private static boolean isSuperscript(RPr rPr) {
+		return rPr != null && rPr.getVertAlign() != null && STVerticalAlignRun.SUPERSCRIPT.equals(rPr.getVertAlign().getVal());
+	}
+
+	private static String getColor(RPr rPr) {
+		return (rPr == null || rPr.getColor() == null) ? null : rPr.getColor().getVal();
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ooxml2java2d.docx.internal.numbering.ListDefinition;
+import ooxml2java2d.docx.internal.numbering.ListDefinitions;
+
+import org.docx4j.wml.PPr;
+import org.docx4j.wml.Style;
+
+/**
+ * The style and numbering definitions of a document, indexed for lookup while rendering. Nothing here is modified
+ * once created, so a style sheet can be shared by documents built from the same template, including across threads.
+ */
+public class StyleSheet {
+	private final Map<String, Style> styles;
+	private final ListDefinitions listDefinitions;
+	private final ParagraphStyle defaultStyle;
+	private final Map<String, Integer> compiledStyleIndexes = new HashMap<>();
+	private final ParagraphStyle[] compiledStyles;
+
+	/**
+	 * @param defaultStyle The default style, made read-only
+	 * @param compiledStyles The paragraph styles by id, each fully resolved (including the styles it is based on) on
+	 * top of the default style and made read-only
+	 */
+	public StyleSheet(Map<String, Style> styles, ListDefinitions listDefinitions, ParagraphStyle defaultStyle,
+			Map<String, ParagraphStyle> compiledStyles) {
+		this.styles = Collections.unmodifiableMap(new HashMap<>(styles));
+		this.listDefinitions = listDefinitions;
+		this.defaultStyle = defaultStyle;
+		this.compiledStyles = new ParagraphStyle[compiledStyles.size()];
+
+		int index = 0;
+
+		for (Map.Entry<String, ParagraphStyle> entry : compiledStyles.entrySet()) {
+			this.compiledStyleIndexes.put(entry.getKey(), index);
+			this.compiledStyles[index++] = entry.getValue();
+			entry.getValue().setReadOnly();
+		}
+
+		if (defaultStyle != null) {
+			defaultStyle.setReadOnly();
+		}
+	}
+
+	public Style getStyle(String styleId) {
+		return styles.get(styleId);
+	}
+
+	/**
+	 * Returns the index of the compiled style with the given id, or -1 if there isn't one.
+	 */
+	public int getCompiledStyleIndex(String styleId) {
+		Integer index = compiledStyleIndexes.get(styleId);
+
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns the compiled style at the given index, which must be copied rather than modified.
+	 */
+	public ParagraphStyle getCompiledStyle(int index) {
+		return compiledStyles[index];
+	}
+
+	/**
+	 * Returns the style of a paragraph with the given properties when they at most name a style, which is then the
+	 * compiled style itself, or null if the properties have to be resolved on top of the default style.
+	 */
+	public ParagraphStyle getParagraphStyle(PPr properties) {
+		if (properties == null) {
+			return defaultStyle;
+		} else if (properties.getSpacing() != null || properties.getInd() != null || properties.getJc() != null) {
+			return null;
+		} else if (properties.getPStyle() == null) {
+			return defaultStyle;
+		}
+
+		int index = getCompiledStyleIndex(properties.getPStyle().getVal());
+
+		return (index < 0) ? null : compiledStyles[index];
+	}
+
+	/**
+	 * Returns the list with the given numbering id, or null if there isn't one.
+	 */
+	public ListDefinition getList(String numId) {
+		return listDefinitions.getList(numId);
+	}
+
+	/**
+	 * The style that paragraphs are based on, resolved from the document defaults and the default paragraph style.
+	 * It must be copied rather than modified.
+	 */
+	public ParagraphStyle getDefaultStyle() {
+		return defaultStyle;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * The measured bounds of words by font, shared by every render in the JVM as the same words tend to turn up over and
+ * over again in the same few fonts.
+ *
+ * Entries are spread over several independently locked {@link LruCache}s, so threads measuring text at the same time
+ * rarely wait on each other, with each evicting its least recently used words once full. Fonts are matched by the id of
+ * their interned {@link FontConfig}, so the cache doesn't keep configs nothing else uses from being collected.
+ */
+public class WordMetricsCache {
+	public static final int DEFAULT_MAX_ENTRIES = 64 * 1024;
+	// longer text is rarely measured twice, so caching it would only push out words that are
+	public static final int MAX_WORD_LENGTH = 32;
+	private static final int SEGMENTS = 16;
+	private static final WordMetricsCache SHARED = new WordMetricsCache(DEFAULT_MAX_ENTRIES);
+	private final List<LruCache<Key, Rectangle2D>> segments = new ArrayList<>(SEGMENTS);
+
+	public WordMetricsCache(int maxEntries) {
+		int segmentEntries = Math.max(1, maxEntries / SEGMENTS);
+
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments.add(new LruCache<Key, Rectangle2D>(segmentEntries));
+		}
+	}
+
+	public static WordMetricsCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns the cached bounds of the text in the font, which must not be modified, or null if they haven't been
+	 * cached. Text too long to be cached isn't counted as a miss.
+	 */
+	public Rectangle2D get(FontConfig fontConfig, String text) {
+		if (text.length() > MAX_WORD_LENGTH) {
+			return null;
+		}
+
+		Key key = new Key(fontConfig, text);
+
+		return getSegment(key).get(key);
+	}
+
+	public void put(FontConfig fontConfig, String text, Rectangle2D bounds) {
+		if (text.length() <= MAX_WORD_LENGTH) {
+			Key key = new Key(fontConfig, text);
+
+			getSegment(key).put(key, bounds);
+		}
+	}
+
+	public long getHitCount() {
+		long hits = 0;
+
+		for (LruCache<Key, Rectangle2D> segment : segments) {
+			hits += segment.getHitCount();
+		}
+
+		return hits;
+	}
+
+	public long getMissCount() {
+		long misses = 0;
+
+		for (LruCache<Key, Rectangle2D> segment : segments) {
+			misses += segment.getMissCount();
+		}
+
+		return misses;
+	}
+
+	/**
+	 * Returns the fraction of lookups that found the word already measured, or 0 if there haven't been any.
+	 */
+	public double getHitRate() {
+		long hits = getHitCount();
+		long lookups = hits + getMissCount();
+
+		return (lookups == 0) ? 0 : (double) hits / lookups;
+	}
+
+	public int size() {
+		int size = 0;
+
+		for (LruCache<Key, Rectangle2D> segment : segments) {
+			size += segment.size();
+		}
+
+		return size;
+	}
+
+	public void clear() {
+		for (LruCache<Key, Rectangle2D> segment : segments) {
+			segment.clear();
+		}
+	}
+
+	private LruCache<Key, Rectangle2D> getSegment(Key key) {
+		int hash = key.hashCode();
+
+		return segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+			.append("size", size())
+			.append("hits", getHitCount())
+			.append("misses", getMissCount())
+			.toString();
+	}
+
+	private static class Key {
+		private final long fontId;
+		private final String text;
+
+		Key(FontConfig fontConfig, String text) {
+			this.fontId = fontConfig.getId();
+			this.text = text;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+
+			return fontId == other.fontId && text.equals(other.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (int) (fontId ^ (fontId >>> 32)) + text.hashCode();
+		}
+	}
+}
@@ -17,10 +17,15 @@
 package ooxml2java2d.docx.internal.content;
 
 import java.awt.Image;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import ooxml2java2d.docx.internal.io.ByteBufferImageInputStream;
+import ooxml2java2d.docx.internal.io.ByteBufferInputStream;
+import ooxml2java2d.docx.internal.io.PackageLoader;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -44,7 +49,19 @@ public class ImageContent extends Content {
 	public Image getImage() throws IOException {
 		BinaryPart binary = (BinaryPart) relationshipPart.getPart(relationshipId);
 
-		return ImageIO.read(new ByteArrayInputStream(binary.getBytes()));
+		if (binary.isLoaded() || binary.getPackage().getSourcePartStore() == null) {
+			return ImageIO.read(new ByteBufferImageInputStream(binary.getBuffer()));
+		}
+
+		// Read the image from the package rather than having the part load (and keep) a copy of it
+		try (InputStream in = PackageLoader.openPart(binary)) {
+			if (in instanceof ByteBufferInputStream) {
+				// stored in a mapped or in-memory archive, so it can be read in place
+				return ImageIO.read(new ByteBufferImageInputStream(((ByteBufferInputStream) in).remaining()));
+			}
+
+			return ImageIO.read(new MemoryCacheImageInputStream(in));
+		}
 	}
 
 	@Override
@@ -16,21 +16,37 @@
 
 package ooxml2java2d.docx.internal.content;
 
+import ooxml2java2d.docx.internal.font.GlyphRun;
+
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 
 public class StringContent extends Content {
 	private String text;
+	private GlyphRun glyphRun;
 
 	public StringContent(int width, int height, String text) {
+		this(width, height, text, null);
+	}
+
+	/**
+	 * @param glyphRun The glyphs of the text as they were measured, to draw instead of the text, or null to draw the
+	 * text as a string
+	 */
+	public StringContent(int width, int height, String text, GlyphRun glyphRun) {
 		super(width, height);
 		this.text = text;
+		this.glyphRun = glyphRun;
 	}
 
 	public String getText() {
 		return text;
 	}
 
+	public GlyphRun getGlyphRun() {
+		return glyphRun;
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+
+/**
+ * The advances and glyphs of the Latin-1 characters in a font, along with general punctuation (curly quotes, dashes,
+ * ellipses, bullets, ...) and the euro sign, so that simple text can be measured by adding them up and drawn straight
+ * from its glyphs instead of being laid out.
+ *
+ * This only gives the same result as laying the text out when the font neither kerns nor forms ligatures, so there is
+ * no table for fonts with layout attributes (including superscript), and words with any character outside the table
+ * (complex scripts, symbols the font can't display, ...) have to be measured some other way.
+ */
+public final class AdvanceTable {
+	private static final char[][] BLOCKS = {
+		{ 0x20, 0xFF },
+		{ 0x2000, 0x206F },
+		{ 0x20AC, 0x20AC },
+	};
+	private final float[] advances;
+	private final int[] glyphCodes;
+	private final float height;
+
+	private AdvanceTable(float[] advances, int[] glyphCodes, float height) {
+		this.advances = advances;
+		this.glyphCodes = glyphCodes;
+		this.height = height;
+	}
+
+	/**
+	 * Returns the advance table of a font, or null if text in it can't be measured from one.
+	 */
+	public static AdvanceTable create(Font font, FontRenderContext frc) {
+		if (font.hasLayoutAttributes()) {
+			return null;
+		}
+
+		int size = 0;
+
+		for (char[] block : BLOCKS) {
+			size += block[1] - block[0] + 1;
+		}
+
+		float[] advances = new float[size];
+		int[] glyphCodes = new int[size];
+		char[] chars = new char[1];
+
+		for (char[] block : BLOCKS) {
+			for (char c = block[0]; c <= block[1]; c++) {
+				int index = indexOf(c);
+
+				chars[0] = c;
+
+				if (!isSimple(c) || !font.canDisplay(c)) {
+					advances[index] = -1;
+				} else {
+					advances[index] = (float) font.getStringBounds(chars, 0, 1, frc).getWidth();
+					glyphCodes[index] = font.createGlyphVector(frc, chars).getGlyphCode(0);
+				}
+			}
+		}
+
+		// every line of simple text is as high as the font's line metrics, whatever is on it
+		return new AdvanceTable(advances, glyphCodes, (float) font.getStringBounds(" ", frc).getHeight());
+	}
+
+	/**
+	 * Shapes text by adding up the advances of its characters, or returns null if it has any character without one.
+	 */
+	public ShapedText shape(String text) {
+		double[] offsets = new double[text.length() + 1];
+		int[] glyphs = new int[text.length()];
+
+		return shape(text, 0, text.length(), glyphs, offsets) ? new SimpleText(glyphs, offsets, height) : null;
+	}
+
+	/**
+	 * Shapes part of a text into the given arrays, with each offset following on from the one at the start index, and
+	 * returns whether every character had an advance. The arrays are left part filled if one didn't.
+	 */
+	public boolean shape(String text, int start, int end, int[] glyphs, double[] offsets) {
+		for (int i = start; i < end; i++) {
+			int index = indexOf(text.charAt(i));
+
+			if (index < 0 || advances[index] < 0) {
+				return false;
+			}
+
+			offsets[i + 1] = offsets[i] + advances[index];
+			glyphs[i] = glyphCodes[index];
+		}
+
+		return true;
+	}
+
+	/**
+	 * The height of every line of text measured from the table.
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	private static int indexOf(char c) {
+		int offset = 0;
+
+		for (char[] block : BLOCKS) {
+			if (c < block[0]) {
+				return -1;
+			} else if (c <= block[1]) {
+				return offset + c - block[0];
+			}
+
+			offset += block[1] - block[0] + 1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Whether a character is drawn as a glyph of its own, rather than being a control or formatting character (such as
+	 * a zero width joiner or bidi mark) that affects the text around it.
+	 */
+	private static boolean isSimple(char c) {
+		switch (Character.getType(c)) {
+			case Character.CONTROL:
+			case Character.FORMAT:
+			case Character.LINE_SEPARATOR:
+			case Character.PARAGRAPH_SEPARATOR:
+				return false;
+			default:
+				return true;
+		}
+	}
+}
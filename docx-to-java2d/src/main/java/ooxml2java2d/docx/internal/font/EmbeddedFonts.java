@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ooxml2java2d.docx.internal.LruCache;
+import ooxml2java2d.docx.internal.io.ContentDigest;
+import ooxml2java2d.docx.internal.io.PackageLoader;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.FontTablePart;
+import org.docx4j.wml.FontRel;
+import org.docx4j.wml.Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the fonts embedded in documents (word/fonts/*.odttf), which are obfuscated with a key from the font table.
+ *
+ * Created fonts are cached by a hash of the embedded data, so documents from the same template only pay for
+ * deobfuscating and creating each font once. Each embedded family is registered with the {@link FontRegistry} under a
+ * name made unique by that hash, so it can't be mistaken for an installed font or another document's font of the same
+ * name, for only as long as renders using it are running.
+ */
+public final class EmbeddedFonts {
+	private static final Logger LOG = LoggerFactory.getLogger(EmbeddedFonts.class);
+	private static final int MAX_FONTS = 256;
+	private static final int[] STYLES = { Font.PLAIN, Font.BOLD, Font.ITALIC, Font.BOLD | Font.ITALIC };
+	private static final int KEY_LENGTH = 16;
+	private static final int OBFUSCATED_LENGTH = 32;
+	private static final LruCache<ByteBuffer, Font> FONTS = new LruCache<>(MAX_FONTS);
+	// the number of renders using each registered name
+	private static final Map<String, Integer> REGISTRATIONS = new HashMap<>();
+
+	private EmbeddedFonts() { }
+
+	/**
+	 * Registers the fonts embedded in a document, returning the names they are registered under by the family names
+	 * the document uses. Every registration must be {@link #release released} once the render is done.
+	 */
+	public static Map<String, String> register(FontTablePart fontTable) {
+		Map<String, String> families = new TreeMap<>();
+		Fonts fontList;
+
+		if (fontTable == null || fontTable.getRelationshipsPart() == null) {
+			return families;
+		}
+
+		try {
+			fontList = fontTable.getContents();
+		} catch (Docx4JException e) {
+			LOG.warn("Unable to read the font table, embedded fonts won't be used", e);
+			return families;
+		}
+
+		if (fontList == null) {
+			return families;
+		}
+
+		try {
+			for (Fonts.Font font : fontList.getFont()) {
+				registerFamily(fontTable, font, families);
+			}
+		} catch (RuntimeException | Error e) {
+			// the caller never gets the families to release
+			release(families);
+			throw e;
+		}
+
+		return families;
+	}
+
+	/**
+	 * Releases the registrations of a render, unregistering the names that no other render is using. The fonts stay in
+	 * the cache, so registering them again later is cheap.
+	 */
+	public static void release(Map<String, String> families) {
+		synchronized (REGISTRATIONS) {
+			for (String name : families.values()) {
+				Integer count = REGISTRATIONS.get(name);
+
+				if (count == null || count <= 1) {
+					REGISTRATIONS.remove(name);
+
+					for (int style : STYLES) {
+						FontRegistry.getShared().unregister(name, style);
+					}
+				} else {
+					REGISTRATIONS.put(name, count - 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Undoes the obfuscation of an embedded font, where the first 32 bytes are XORed with the bytes of the font key
+	 * GUID in reverse order. As it is an XOR, the same call obfuscates a font.
+	 */
+	public static void deobfuscate(byte[] data, String fontKey) {
+		String guid = fontKey.replaceAll("[{}-]", "");
+
+		if (guid.length() != KEY_LENGTH * 2) {
+			throw new IllegalArgumentException("Invalid font key " + fontKey);
+		}
+
+		byte[] key = new byte[KEY_LENGTH];
+
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			key[i] = (byte) Integer.parseInt(guid.substring(guid.length() - 2 * (i + 1), guid.length() - 2 * i), 16);
+		}
+
+		for (int i = 0; i < OBFUSCATED_LENGTH && i < data.length; i++) {
+			data[i] ^= key[i % KEY_LENGTH];
+		}
+	}
+
+	private static void registerFamily(FontTablePart fontTable, Fonts.Font font, Map<String, String> families) {
+		FontRel[] rels = { font.getEmbedRegular(), font.getEmbedBold(), font.getEmbedItalic(), font.getEmbedBoldItalic() };
+		Font[] fonts = new Font[STYLES.length];
+		ContentDigest familyDigest = new ContentDigest();
+		Font regular = null;
+
+		for (int i = 0; i < rels.length; i++) {
+			Part part = (rels[i] == null) ? null : fontTable.getRelationshipsPart().getPart(rels[i].getId());
+
+			if (part instanceof BinaryPart) {
+				try {
+					ByteBuffer key = getKey((BinaryPart) part, rels[i].getFontKey());
+
+					fonts[i] = getFont(key, (BinaryPart) part, rels[i].getFontKey());
+					familyDigest.update(key);
+					regular = (regular == null) ? fonts[i] : regular;
+				} catch (IOException | FontFormatException e) {
+					LOG.warn("Unable to load embedded font " + font.getName() + " from " + part.getPartName(), e);
+				}
+			}
+		}
+
+		if (regular != null) {
+			String name = font.getName() + " (embedded " + toHex(familyDigest.toKey()) + ")";
+
+			for (int i = 0; i < STYLES.length; i++) {
+				// styles that aren't embedded are derived from one that is
+				fonts[i] = (fonts[i] == null) ? regular.deriveFont(STYLES[i]) : fonts[i];
+			}
+
+			register(name, fonts);
+			families.put(font.getName(), name);
+		}
+	}
+
+	private static void register(String name, Font[] fonts) {
+		synchronized (REGISTRATIONS) {
+			Integer count = REGISTRATIONS.get(name);
+
+			if (count == null) {
+				for (int i = 0; i < STYLES.length; i++) {
+					FontRegistry.getShared().register(name, STYLES[i], fonts[i]);
+				}
+			}
+
+			REGISTRATIONS.put(name, (count == null) ? 1 : count + 1);
+		}
+	}
+
+	private static String toHex(ByteBuffer digest) {
+		StringBuilder hex = new StringBuilder();
+
+		while (digest.hasRemaining()) {
+			hex.append(String.format("%02x", digest.get()));
+		}
+
+		return hex.toString();
+	}
+
+	// Hashes the raw part when it hasn't been loaded, so a cached font doesn't need it in memory at all
+	private static ByteBuffer getKey(BinaryPart part, String fontKey) throws IOException {
+		ContentDigest digest = new ContentDigest();
+
+		digest.update(String.valueOf(fontKey));
+
+		if (part.isLoaded() || part.getPackage().getSourcePartStore() == null) {
+			digest.update(part.getBuffer());
+		} else {
+			digest.update(PackageLoader.openPart(part));
+		}
+
+		return digest.toKey();
+	}
+
+	private static Font getFont(ByteBuffer key, BinaryPart part, String fontKey) throws IOException, FontFormatException {
+		Font font = FONTS.get(key);
+
+		if (font == null) {
+			// created outside the cache's lock, at worst the same font is created twice
+			ByteBuffer buffer = part.getBuffer().duplicate();
+			byte[] data = new byte[buffer.remaining()];
+
+			buffer.get(data);
+
+			if (fontKey != null) {
+				deobfuscate(data, fontKey);
+			}
+
+			font = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(data));
+			FONTS.put(key, font);
+		}
+
+		return font;
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The TrueType and OpenType font files found in a set of directories, indexed by family and style.
+ *
+ * Finding out what a font file contains means loading it, so the index can be saved to a file and reloaded, after
+ * which only the font files that have been added or changed since are loaded. Fonts are only created from their
+ * files when first asked for.
+ */
+public class FontIndex {
+	private static final Logger LOG = LoggerFactory.getLogger(FontIndex.class);
+	private static final String[] EXTENSIONS = { ".ttf", ".otf" };
+	private static final int ENTRY_FIELDS = 4;
+	private final Map<String, File> files;
+	private final ConcurrentMap<File, Font> fonts = new ConcurrentHashMap<>();
+	private final ConcurrentMap<File, OpenTypeMetrics> metrics = new ConcurrentHashMap<>();
+
+	private FontIndex(Map<String, File> files) {
+		this.files = Collections.unmodifiableMap(files);
+	}
+
+	/**
+	 * Indexes the font files in the given directories and their subdirectories.
+	 *
+	 * @param indexFile Where the index is kept between runs, or null to index every font file each time
+	 */
+	public static FontIndex load(File indexFile, List<File> directories) throws IOException {
+		Properties saved = new Properties();
+		Properties current = new Properties();
+
+		if (indexFile != null && indexFile.isFile()) {
+			try (InputStream in = Files.newInputStream(indexFile.toPath())) {
+				saved.load(in);
+			}
+		}
+
+		for (File file : findFontFiles(directories)) {
+			String path = file.getAbsolutePath();
+			String stamp = file.lastModified() + "," + file.length() + ",";
+			String entry = saved.getProperty(path);
+
+			if (entry == null || !entry.startsWith(stamp)) {
+				Font font = createFont(file);
+
+				entry = (font == null) ? stamp + "-1," : stamp + getStyle(font) + "," + font.getFamily(Locale.ENGLISH);
+			}
+
+			current.setProperty(path, entry);
+		}
+
+		if (indexFile != null && !current.equals(saved)) {
+			try (OutputStream out = Files.newOutputStream(indexFile.toPath())) {
+				current.store(out, "Font index");
+			}
+		}
+
+		Map<String, File> files = new HashMap<>();
+
+		for (String path : current.stringPropertyNames()) {
+			// lastModified,length,style,family
+			String[] fields = current.getProperty(path).split(",", ENTRY_FIELDS);
+			int style = Integer.parseInt(fields[2]);
+
+			if (style >= 0) {
+				String key = getKey(fields[3], style);
+
+				// with duplicates, prefer the same file every time
+				if (!files.containsKey(key) || path.compareTo(files.get(key).getPath()) < 0) {
+					files.put(key, new File(path));
+				}
+			}
+		}
+
+		LOG.debug("Indexed " + files.size() + " fonts in " + directories);
+
+		return new FontIndex(files);
+	}
+
+	public boolean hasFamily(String family) {
+		return files.containsKey(getKey(family, Font.PLAIN));
+	}
+
+	/**
+	 * Whether {@link #getFont} has a font for the family and style, without loading it.
+	 */
+	public boolean hasFont(String family, int style) {
+		return files.containsKey(getKey(family, style)) || hasFamily(family);
+	}
+
+	/**
+	 * Returns a one point font of the given family and style, or null if the family isn't in the index. If the family
+	 * has no file for the style the plain font is derived in that style instead.
+	 */
+	public Font getFont(String family, int style) {
+		File file = files.get(getKey(family, style));
+
+		if (file != null) {
+			return loadFont(file);
+		}
+
+		file = files.get(getKey(family, Font.PLAIN));
+
+		return (file == null) ? null : loadFont(file).deriveFont(style);
+	}
+
+	/**
+	 * Returns the metrics read from the font file that {@link #getFont} returns the font of, or null if the family
+	 * isn't in the index, the font is derived from another style or the file's tables can't be read.
+	 */
+	public OpenTypeMetrics getMetrics(String family, int style) {
+		File file = files.get(getKey(family, style));
+
+		return (file == null) ? null : loadMetrics(file);
+	}
+
+	private Font loadFont(File file) {
+		Font font = fonts.get(file);
+
+		if (font == null) {
+			font = createFont(file);
+
+			if (font == null) {
+				throw new IllegalStateException("Unable to load indexed font " + file);
+			}
+
+			fonts.putIfAbsent(file, font);
+		}
+
+		return font;
+	}
+
+	private OpenTypeMetrics loadMetrics(File file) {
+		OpenTypeMetrics fileMetrics = metrics.get(file);
+
+		if (fileMetrics == null) {
+			try {
+				fileMetrics = OpenTypeMetrics.load(file);
+			} catch (IOException e) {
+				// fonts the JDK can load should have readable tables, but if not they can still be measured by the JDK
+				LOG.warn("Unable to read metrics of font " + file, e);
+				return null;
+			}
+
+			metrics.putIfAbsent(file, fileMetrics);
+		}
+
+		return fileMetrics;
+	}
+
+	private static List<File> findFontFiles(List<File> directories) {
+		List<File> found = new ArrayList<>();
+
+		for (File directory : directories) {
+			File[] children = directory.listFiles();
+
+			if (children == null) {
+				LOG.warn("Unable to read font directory " + directory);
+				continue;
+			}
+
+			for (File child : children) {
+				if (child.isDirectory()) {
+					found.addAll(findFontFiles(Collections.singletonList(child)));
+				} else if (isFontFile(child)) {
+					found.add(child);
+				}
+			}
+		}
+
+		return found;
+	}
+
+	private static boolean isFontFile(File file) {
+		String name = file.getName().toLowerCase(Locale.ENGLISH);
+
+		for (String extension : EXTENSIONS) {
+			if (name.endsWith(extension)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static Font createFont(File file) {
+		try {
+			return Font.createFont(Font.TRUETYPE_FONT, file);
+		} catch (FontFormatException | IOException e) {
+			LOG.warn("Unable to load font " + file, e);
+			return null;
+		}
+	}
+
+	// Fonts created from files are always plain, the style has to be taken from the font's full name
+	private static int getStyle(Font font) {
+		String name = font.getFontName(Locale.ENGLISH).toLowerCase(Locale.ENGLISH);
+		int style = Font.PLAIN;
+
+		if (name.contains("bold")) {
+			style |= Font.BOLD;
+		}
+
+		if (name.contains("italic") || name.contains("oblique")) {
+			style |= Font.ITALIC;
+		}
+
+		return style;
+	}
+
+	private static String getKey(String family, int style) {
+		return family.toLowerCase(Locale.ENGLISH) + "," + style;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ooxml2java2d.docx.internal.BackgroundExecutor;
+import ooxml2java2d.docx.internal.LruCache;
+
+/**
+ * Resolves font families once per JVM and shares them between renders.
+ *
+ * Looking a family up is slow the first time, so the fonts a document uses can be preloaded on the
+ * {@link BackgroundExecutor} before layout starts. A font asked for while it is still being preloaded is waited for
+ * rather than looked up again, and one that hasn't been started yet is resolved on the calling thread.
+ *
+ * Families are looked up in a {@link FontIndex} of local font files when one is configured, after applying any
+ * substitutions, and only otherwise through the JDK's font manager. Fonts registered by name, such as those embedded
+ * in documents, take precedence and are kept apart, so reconfiguring doesn't affect renders using them.
+ */
+public final class FontRegistry {
+	private static final int MAX_FONTS = 1024;
+	private static final FontRegistry SHARED = new FontRegistry();
+	// family names come from documents, so only the most recently used are kept
+	private final LruCache<String, FutureTask<Font>> fonts = new LruCache<>(MAX_FONTS);
+	private final ConcurrentMap<String, Font> registered = new ConcurrentHashMap<>();
+	private final AtomicInteger generation = new AtomicInteger();
+	private volatile FontIndex index;
+	private volatile Map<String, String> substitutions = Collections.emptyMap();
+	private volatile String fallbackFamily;
+	private volatile boolean openTypeMetrics;
+
+	private FontRegistry() { }
+
+	public static FontRegistry getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Makes families be looked up in the given index, forgetting any fonts resolved so far but not registered fonts.
+	 * This should be done before rendering starts, as documents being rendered at the time may end up with a mix of
+	 * fonts.
+	 *
+	 * @param index The local font files, or null to use the JDK's font manager
+	 * @param substitutions Families to use in place of others, e.g. Carlito for Calibri
+	 * @param fallbackFamily The family in the index to use for families it doesn't have, or null to use the JDK's
+	 * font manager for those
+	 * @param openTypeMetrics Whether text in fonts from the index is measured from the tables of their font files
+	 */
+	public void configure(FontIndex index, Map<String, String> substitutions, String fallbackFamily, boolean openTypeMetrics) {
+		this.index = index;
+		this.substitutions = Collections.unmodifiableMap(new HashMap<>(substitutions));
+		this.fallbackFamily = fallbackFamily;
+		this.openTypeMetrics = openTypeMetrics;
+
+		fonts.clear();
+		// last, so that anyone who sees the new generation sees the new configuration too
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Returns the number of times the registry has been configured, so that anything derived from the fonts it
+	 * resolved can tell when to look them up again.
+	 */
+	public int getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Returns a one point font of the given family and style, with the family already looked up.
+	 */
+	public Font getFont(String name, int style) {
+		Font registeredFont = registered.get(getKey(name, style));
+
+		if (registeredFont != null) {
+			return registeredFont;
+		}
+
+		FutureTask<Font> font = getTask(name, style);
+
+		// does nothing if the font has been, or is being, resolved elsewhere
+		font.run();
+
+		try {
+			return font.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error resolving font " + name, e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted resolving font " + name, e);
+		}
+	}
+
+	/**
+	 * Registers a font that didn't come from looking up its family, such as one embedded in a document.
+	 */
+	public void register(String name, int style, Font font) {
+		registered.put(getKey(name, style), font);
+	}
+
+	/**
+	 * Removes a font added with {@link #register}, after which the name is looked up like any other family.
+	 */
+	public void unregister(String name, int style) {
+		registered.remove(getKey(name, style));
+	}
+
+	/**
+	 * Returns the metrics of the font file that {@link #getFont} finds for the family and style, or null if text in the
+	 * font has to be measured by the JDK: when OpenType metrics are turned off, the font isn't from a file in the index
+	 * or it is derived from another style.
+	 */
+	public OpenTypeMetrics getMetrics(String name, int style) {
+		FontIndex fontIndex = index;
+
+		if (!openTypeMetrics || fontIndex == null || registered.containsKey(getKey(name, style))) {
+			return null;
+		}
+
+		// looked up the same way as by FontResolver
+		String family = substitutions.containsKey(name) ? substitutions.get(name) : name;
+
+		if (!fontIndex.hasFont(family, style)) {
+			family = fallbackFamily;
+		}
+
+		return (family == null) ? null : fontIndex.getMetrics(family, style);
+	}
+
+	/**
+	 * Starts resolving the plain style of any of the given families that haven't been already, without waiting for them.
+	 */
+	public void preload(Collection<String> names) {
+		for (String name : names) {
+			FutureTask<Font> font = new FutureTask<>(createResolver(name, Font.PLAIN));
+
+			if (fonts.putIfAbsent(getKey(name, Font.PLAIN), font) == null) {
+				BackgroundExecutor.get().execute(font);
+			}
+		}
+	}
+
+	public boolean isLoaded(String name, int style) {
+		FutureTask<Font> font = fonts.get(getKey(name, style));
+
+		return registered.containsKey(getKey(name, style)) || font != null && font.isDone();
+	}
+
+	private FutureTask<Font> getTask(String name, int style) {
+		String key = getKey(name, style);
+		FutureTask<Font> font = fonts.get(key);
+
+		if (font == null) {
+			font = new FutureTask<>(createResolver(name, style));
+
+			FutureTask<Font> existing = fonts.putIfAbsent(key, font);
+
+			if (existing != null) {
+				font = existing;
+			}
+		}
+
+		return font;
+	}
+
+	private FontResolver createResolver(String name, int style) {
+		String family = substitutions.containsKey(name) ? substitutions.get(name) : name;
+
+		return new FontResolver(family, style, index, fallbackFamily);
+	}
+
+	private static String getKey(String name, int style) {
+		return name + "," + style;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.util.concurrent.Callable;
+
+/**
+ * Looks up a font family, either in an index of local font files or through the JDK's font manager, which otherwise
+ * defers the lookup until the font is first measured or drawn.
+ */
+class FontResolver implements Callable<Font> {
+	private final String family;
+	private final int style;
+	private final FontIndex index;
+	private final String fallbackFamily;
+
+	FontResolver(String family, int style, FontIndex index, String fallbackFamily) {
+		this.family = family;
+		this.style = style;
+		this.index = index;
+		this.fallbackFamily = fallbackFamily;
+	}
+
+	@Override
+	public Font call() {
+		if (index != null) {
+			Font font = index.getFont(family, style);
+
+			if (font == null && fallbackFamily != null) {
+				font = index.getFont(fallbackFamily, style);
+			}
+
+			if (font != null) {
+				return font;
+			}
+		}
+
+		Font font = new Font(family, style, 1);
+
+		// asking for the family makes the font manager find the font (or its fallback) and cache it
+		font.getFamily();
+
+		return font;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * The glyphs of a piece of text and where layout measured them to be, held as plain values so that nothing to do with
+ * the JDK's font system is needed until they are drawn.
+ */
+public class GlyphRun {
+	private final int[] glyphIds;
+	private final double[] positions;
+
+	/**
+	 * @param positions The offset of each glyph from the start of the run, followed by the offset of its end
+	 */
+	public GlyphRun(int[] glyphIds, double[] positions) {
+		this.glyphIds = glyphIds;
+		this.positions = positions;
+	}
+
+	/**
+	 * Creates the run of the glyphs between the given indexes, positioned by offsets measured from the start of the
+	 * whole text.
+	 */
+	public static GlyphRun create(int[] glyphIds, double[] offsets, int start, int end) {
+		double[] positions = new double[end - start + 1];
+
+		for (int i = start; i <= end; i++) {
+			positions[i - start] = offsets[i] - offsets[start];
+		}
+
+		return new GlyphRun(Arrays.copyOfRange(glyphIds, start, end), positions);
+	}
+
+	public int getGlyphCount() {
+		return glyphIds.length;
+	}
+
+	/**
+	 * Creates the glyph vector to draw the run with, in the font the glyphs were measured in.
+	 */
+	public GlyphVector createGlyphVector(Font font, FontRenderContext frc) {
+		GlyphVector glyphs = font.createGlyphVector(frc, glyphIds);
+
+		for (int i = 0; i < positions.length; i++) {
+			glyphs.setGlyphPosition(i, new Point2D.Double(positions[i], 0));
+		}
+
+		return glyphs;
+	}
+}
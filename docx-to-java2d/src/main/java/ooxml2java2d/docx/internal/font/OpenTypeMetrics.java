@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The horizontal metrics of a TrueType or OpenType font read straight from its hmtx, cmap and kern tables, so that
+ * text can be measured without going through the JDK's font system and the locks within it.
+ *
+ * Nothing here changes once read, so the metrics of a font can be shared by any number of threads. Only text that
+ * needs no shaping beyond mapping characters to glyphs can be measured, anything else (complex scripts, combining
+ * marks, characters the font has no glyph for, ...) has to be measured by the JDK instead.
+ */
+public final class OpenTypeMetrics {
+	private static final int TAG_CMAP = 0x636D6170;
+	private static final int TAG_HEAD = 0x68656164;
+	private static final int TAG_HHEA = 0x68686561;
+	private static final int TAG_HMTX = 0x686D7478;
+	private static final int TAG_KERN = 0x6B65726E;
+	private static final int TAG_MAXP = 0x6D617870;
+	private final int unitsPerEm;
+	private final int ascent;
+	private final int descent;
+	private final int lineGap;
+	private final int[] advances;
+	private final CharacterMap characterMap;
+	private final int[] kerningPairs;
+	private final short[] kerningValues;
+
+	private OpenTypeMetrics(int unitsPerEm, int ascent, int descent, int lineGap, int[] advances, CharacterMap characterMap,
+			int[] kerningPairs, short[] kerningValues) {
+		this.unitsPerEm = unitsPerEm;
+		this.ascent = ascent;
+		this.descent = descent;
+		this.lineGap = lineGap;
+		this.advances = advances;
+		this.characterMap = characterMap;
+		this.kerningPairs = kerningPairs;
+		this.kerningValues = kerningValues;
+	}
+
+	public static OpenTypeMetrics load(File file) throws IOException {
+		return read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+	}
+
+	public static OpenTypeMetrics read(ByteBuffer font) throws IOException {
+		try {
+			Map<Integer, ByteBuffer> tables = readTables(font);
+			ByteBuffer head = getTable(tables, TAG_HEAD);
+			ByteBuffer hhea = getTable(tables, TAG_HHEA);
+			int glyphCount = getTable(tables, TAG_MAXP).getShort(4) & 0xFFFF;
+			ByteBuffer kern = tables.get(TAG_KERN);
+			Map<Integer, Short> kerning = (kern == null) ? new HashMap<Integer, Short>() : readKerning(kern);
+			int[] kerningPairs = new int[kerning.size()];
+			short[] kerningValues = new short[kerning.size()];
+			int index = 0;
+
+			for (Integer pair : kerning.keySet()) {
+				kerningPairs[index++] = pair;
+			}
+
+			Arrays.sort(kerningPairs);
+
+			for (int i = 0; i < kerningPairs.length; i++) {
+				kerningValues[i] = kerning.get(kerningPairs[i]);
+			}
+
+			return new OpenTypeMetrics(
+				head.getShort(18) & 0xFFFF,
+				hhea.getShort(4),
+				-hhea.getShort(6),
+				hhea.getShort(8),
+				readAdvances(getTable(tables, TAG_HMTX), hhea.getShort(34) & 0xFFFF, glyphCount),
+				CharacterMap.read(getTable(tables, TAG_CMAP)),
+				kerningPairs,
+				kerningValues
+			);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Malformed font tables", e);
+		}
+	}
+
+	public int getUnitsPerEm() {
+		return unitsPerEm;
+	}
+
+	/**
+	 * Returns the glyph for a character, or 0 (the missing glyph) if the font doesn't have one.
+	 */
+	public int getGlyphId(char c) {
+		return characterMap.getGlyphId(c);
+	}
+
+	/**
+	 * Returns the advance of a glyph in font units.
+	 */
+	public int getAdvance(int glyphId) {
+		return (glyphId < advances.length) ? advances[glyphId] : 0;
+	}
+
+	/**
+	 * Returns the adjustment to the advance of the left glyph when followed by the right one, in font units.
+	 */
+	public int getKerning(int leftGlyphId, int rightGlyphId) {
+		int index = Arrays.binarySearch(kerningPairs, (leftGlyphId << 16) | rightGlyphId);
+
+		return (index < 0) ? 0 : kerningValues[index];
+	}
+
+	/**
+	 * Returns the height of a line of text in the font at the given size.
+	 */
+	public double getHeight(float size) {
+		return (double) (ascent + descent + lineGap) * size / unitsPerEm;
+	}
+
+	/**
+	 * Returns the logical bounds of the text at the given size, as {@link java.awt.Font#getStringBounds} would, or
+	 * null if it can't be measured from the font's tables.
+	 *
+	 * @param kerned Whether the text is measured as a font with {@link java.awt.font.TextAttribute#KERNING} on would
+	 *        measure it
+	 */
+	public Rectangle2D getStringBounds(String text, float size, boolean kerned) {
+		double[] offsets = getOffsets(text, null, size, kerned);
+
+		if (offsets == null) {
+			return null;
+		}
+
+		float scale = size / unitsPerEm;
+
+		return new Rectangle2D.Float(0, -ascent * scale, (float) offsets[text.length()], (float) getHeight(size));
+	}
+
+	/**
+	 * Maps the text to glyphs, filling in their ids, and returns the offset of each character from the start of the
+	 * text at the given size with the offset of the end last, or null if the text can't be measured from the font's
+	 * tables.
+	 *
+	 * @param glyphIds Where to put the glyph of each character, or null if they aren't wanted
+	 * @param kerned Whether the kerning pairs of the font are applied
+	 */
+	public double[] getOffsets(String text, int[] glyphIds, float size, boolean kerned) {
+		double scale = (double) size / unitsPerEm;
+		double[] offsets = new double[text.length() + 1];
+		int previous = -1;
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			int glyphId = isSimple(c) ? characterMap.getGlyphId(c) : 0;
+
+			if (glyphId == 0) {
+				return null;
+			}
+
+			if (kerned && previous > 0) {
+				offsets[i] += getKerning(previous, glyphId) * scale;
+			}
+
+			offsets[i + 1] = offsets[i] + getAdvance(glyphId) * scale;
+			previous = glyphId;
+
+			if (glyphIds != null) {
+				glyphIds[i] = glyphId;
+			}
+		}
+
+		return offsets;
+	}
+
+	// whether the character is drawn as a glyph of its own, left to right, without needing to be shaped
+	private static boolean isSimple(char c) {
+		if (Character.isSurrogate(c) || Character.isISOControl(c)) {
+			return false;
+		}
+
+		switch (Character.getType(c)) {
+			case Character.NON_SPACING_MARK:
+			case Character.ENCLOSING_MARK:
+			case Character.COMBINING_SPACING_MARK:
+			case Character.FORMAT:
+				return false;
+			default:
+				// Hebrew onwards are right to left or complex scripts, up to the symbols and CJK blocks, and so are the
+				// Hebrew and Arabic presentation forms
+				return c < 0x0590 || (c >= 0x2000 && c < 0xD800) || (c >= 0xF900 && c < 0xFB1D)
+						|| (c >= 0xFE00 && c < 0xFE70) || c >= 0xFF00;
+		}
+	}
+
+	private static Map<Integer, ByteBuffer> readTables(ByteBuffer font) throws IOException {
+		int version = font.getInt(0);
+
+		// TrueType outlines, CFF outlines or Apple's 'true'
+		if (version != 0x00010000 && version != 0x4F54544F && version != 0x74727565) {
+			throw new IOException("Not a TrueType or OpenType font");
+		}
+
+		Map<Integer, ByteBuffer> tables = new HashMap<>();
+		int tableCount = font.getShort(4) & 0xFFFF;
+
+		for (int i = 0; i < tableCount; i++) {
+			int record = 12 + i * 16;
+			ByteBuffer table = font.duplicate();
+
+			table.position(font.getInt(record + 8));
+			table.limit(table.position() + font.getInt(record + 12));
+			tables.put(font.getInt(record), table.slice());
+		}
+
+		return tables;
+	}
+
+	private static ByteBuffer getTable(Map<Integer, ByteBuffer> tables, int tag) throws IOException {
+		ByteBuffer table = tables.get(tag);
+
+		if (table == null) {
+			throw new IOException("Missing font table " + new String(ByteBuffer.allocate(4).putInt(tag).array(), "US-ASCII"));
+		}
+
+		return table;
+	}
+
+	private static int[] readAdvances(ByteBuffer hmtx, int metricCount, int glyphCount) {
+		int[] advances = new int[Math.max(metricCount, glyphCount)];
+
+		for (int i = 0; i < advances.length; i++) {
+			// glyphs past the last metric have the same advance as it
+			advances[i] = (i < metricCount) ? hmtx.getShort(i * 4) & 0xFFFF : advances[metricCount - 1];
+		}
+
+		return advances;
+	}
+
+	private static Map<Integer, Short> readKerning(ByteBuffer kern) {
+		Map<Integer, Short> kerning = new HashMap<>();
+
+		// only the original (version 0) table, Apple's version 1 tables are left out
+		if (kern.getShort(0) != 0) {
+			return kerning;
+		}
+
+		int subtableCount = kern.getShort(2) & 0xFFFF;
+		int offset = 4;
+
+		for (int i = 0; i < subtableCount; i++) {
+			int length = kern.getShort(offset + 2) & 0xFFFF;
+			int coverage = kern.getShort(offset + 4) & 0xFFFF;
+
+			// format 0 horizontal kerning that adjusts advances rather than replacing them or running across lines
+			if ((coverage & 0xFF07) == 0x0001) {
+				int pairCount = kern.getShort(offset + 6) & 0xFFFF;
+
+				for (int pair = 0; pair < pairCount; pair++) {
+					int entry = offset + 14 + pair * 6;
+					int key = ((kern.getShort(entry) & 0xFFFF) << 16) | (kern.getShort(entry + 2) & 0xFFFF);
+					Short previous = kerning.get(key);
+
+					kerning.put(key, (short) (kern.getShort(entry + 4) + (previous == null ? 0 : previous)));
+				}
+			}
+
+			offset += length;
+		}
+
+		return kerning;
+	}
+
+	/**
+	 * A cmap subtable mapping characters to glyphs, held as the segments of a format 4 table, into which format 12
+	 * tables are converted.
+	 */
+	private static final class CharacterMap {
+		private final int[] startCodes;
+		private final int[] endCodes;
+		private final int[] deltas;
+		private final int[] rangeOffsets;
+		private final int[] glyphIds;
+
+		private CharacterMap(int[] startCodes, int[] endCodes, int[] deltas, int[] rangeOffsets, int[] glyphIds) {
+			this.startCodes = startCodes;
+			this.endCodes = endCodes;
+			this.deltas = deltas;
+			this.rangeOffsets = rangeOffsets;
+			this.glyphIds = glyphIds;
+		}
+
+		static CharacterMap read(ByteBuffer cmap) throws IOException {
+			int subtableCount = cmap.getShort(2) & 0xFFFF;
+			int format4 = -1;
+			int format12 = -1;
+
+			for (int i = 0; i < subtableCount; i++) {
+				int platform = cmap.getShort(4 + i * 8) & 0xFFFF;
+				int encoding = cmap.getShort(6 + i * 8) & 0xFFFF;
+				int offset = cmap.getInt(8 + i * 8);
+				int format = cmap.getShort(offset) & 0xFFFF;
+				// Unicode platform, or Windows with Unicode BMP or full repertoire encoding
+				boolean unicode = platform == 0 || (platform == 3 && (encoding == 1 || encoding == 10));
+
+				if (unicode && format == 4 && format4 < 0) {
+					format4 = offset;
+				} else if (unicode && format == 12 && format12 < 0) {
+					format12 = offset;
+				}
+			}
+
+			if (format12 >= 0) {
+				return readFormat12(cmap, format12);
+			} else if (format4 >= 0) {
+				return readFormat4(cmap, format4);
+			}
+
+			throw new IOException("No Unicode character map in font");
+		}
+
+		int getGlyphId(char c) {
+			int low = 0;
+			int high = endCodes.length - 1;
+
+			// the first segment ending at or after the character
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+
+				if (endCodes[mid] < c) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			if (endCodes.length == 0 || endCodes[low] < c || startCodes[low] > c) {
+				return 0;
+			}
+
+			if (rangeOffsets[low] == 0) {
+				return (c + deltas[low]) & 0xFFFF;
+			}
+
+			// the range offset is from the segment's own entry, which is this many entries before the glyph ids
+			int index = rangeOffsets[low] / 2 + (c - startCodes[low]) - (endCodes.length - low);
+
+			if (index < 0 || index >= glyphIds.length || glyphIds[index] == 0) {
+				return 0;
+			}
+
+			return (glyphIds[index] + deltas[low]) & 0xFFFF;
+		}
+
+		private static CharacterMap readFormat4(ByteBuffer cmap, int offset) {
+			int segmentCount = (cmap.getShort(offset + 6) & 0xFFFF) / 2;
+			int length = cmap.getShort(offset + 2) & 0xFFFF;
+			int endCodes = offset + 14;
+			int startCodes = endCodes + segmentCount * 2 + 2;
+			int deltas = startCodes + segmentCount * 2;
+			int rangeOffsets = deltas + segmentCount * 2;
+			int glyphIdStart = rangeOffsets + segmentCount * 2;
+			int[] glyphIds = new int[Math.max(0, (offset + length - glyphIdStart) / 2)];
+			CharacterMap map = new CharacterMap(new int[segmentCount], new int[segmentCount], new int[segmentCount],
+				new int[segmentCount], glyphIds);
+
+			for (int i = 0; i < segmentCount; i++) {
+				map.endCodes[i] = cmap.getShort(endCodes + i * 2) & 0xFFFF;
+				map.startCodes[i] = cmap.getShort(startCodes + i * 2) & 0xFFFF;
+				map.deltas[i] = cmap.getShort(deltas + i * 2);
+				map.rangeOffsets[i] = cmap.getShort(rangeOffsets + i * 2) & 0xFFFF;
+			}
+
+			for (int i = 0; i < glyphIds.length; i++) {
+				glyphIds[i] = cmap.getShort(glyphIdStart + i * 2) & 0xFFFF;
+			}
+
+			return map;
+		}
+
+		private static CharacterMap readFormat12(ByteBuffer cmap, int offset) {
+			int groupCount = cmap.getInt(offset + 12);
+			int bmpGroups = 0;
+
+			// only characters in the basic multilingual plane are measured
+			while (bmpGroups < groupCount && cmap.getInt(offset + 16 + bmpGroups * 12) <= 0xFFFF) {
+				bmpGroups++;
+			}
+
+			CharacterMap map = new CharacterMap(new int[bmpGroups], new int[bmpGroups], new int[bmpGroups],
+				new int[bmpGroups], new int[0]);
+
+			for (int i = 0; i < bmpGroups; i++) {
+				int group = offset + 16 + i * 12;
+
+				map.startCodes[i] = cmap.getInt(group);
+				map.endCodes[i] = Math.min(0xFFFF, cmap.getInt(group + 4));
+				map.deltas[i] = cmap.getInt(group + 8) - map.startCodes[i];
+			}
+
+			return map;
+		}
+	}
+}
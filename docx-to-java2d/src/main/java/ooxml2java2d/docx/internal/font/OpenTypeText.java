@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+/**
+ * Text shaped from the tables of an {@link OpenTypeMetrics}, including any kerning, whose glyphs are drawn at the
+ * offsets they were measured at.
+ */
+public class OpenTypeText implements ShapedText {
+	private final boolean drawnAsGlyphs;
+	private final int[] glyphIds;
+	private final double[] offsets;
+	private final double height;
+
+	/**
+	 * @param drawnAsGlyphs Whether the text can be drawn from its glyphs, which must then be drawn in a font created
+	 * from the same font file as the metrics, rather than as a string
+	 */
+	public OpenTypeText(boolean drawnAsGlyphs, int[] glyphIds, double[] offsets, double height) {
+		this.drawnAsGlyphs = drawnAsGlyphs;
+		this.glyphIds = glyphIds;
+		this.offsets = offsets;
+		this.height = height;
+	}
+
+	@Override
+	public double getWidth(int start, int end) {
+		return offsets[end] - offsets[start];
+	}
+
+	@Override
+	public double getHeight(int start, int end) {
+		return height;
+	}
+
+	@Override
+	public GlyphRun getGlyphRun(int start, int end) {
+		return drawnAsGlyphs ? GlyphRun.create(glyphIds, offsets, start, end) : null;
+	}
+}
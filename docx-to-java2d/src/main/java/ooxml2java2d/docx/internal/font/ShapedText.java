@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+/**
+ * A run of text laid out once in a font, so that any part of it can be measured without laying it out again.
+ */
+public interface ShapedText {
+	/**
+	 * Returns the width of the text between the given indexes.
+	 */
+	double getWidth(int start, int end);
+
+	/**
+	 * Returns the height of a line holding the text between the given indexes.
+	 */
+	double getHeight(int start, int end);
+
+	/**
+	 * Returns the glyphs of the text between the given indexes, positioned as they were measured, or null if the text
+	 * has to be drawn as a string (e.g. to be underlined).
+	 */
+	GlyphRun getGlyphRun(int start, int end);
+}
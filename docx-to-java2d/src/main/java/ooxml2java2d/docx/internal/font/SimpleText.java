@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+/**
+ * Text shaped from an {@link AdvanceTable}, holding the glyph for each character and its offset from the start of the
+ * text so that measuring any part of it takes constant time.
+ */
+public class SimpleText implements ShapedText {
+	private final int[] glyphIds;
+	private final double[] offsets;
+	private final double height;
+
+	public SimpleText(int[] glyphIds, double[] offsets, double height) {
+		this.glyphIds = glyphIds;
+		this.offsets = offsets;
+		this.height = height;
+	}
+
+	@Override
+	public double getWidth(int start, int end) {
+		return offsets[end] - offsets[start];
+	}
+
+	@Override
+	public double getHeight(int start, int end) {
+		return height;
+	}
+
+	@Override
+	public GlyphRun getGlyphRun(int start, int end) {
+		return GlyphRun.create(glyphIds, offsets, start, end);
+	}
+}
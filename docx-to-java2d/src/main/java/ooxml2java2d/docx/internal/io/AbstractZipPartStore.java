@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.docx4j.openpackaging.contenttype.ContentTypeManager;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.io3.stores.PartStore;
+import org.docx4j.openpackaging.parts.CustomXmlDataStoragePart;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.XmlPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A read-only {@link PartStore} that inflates each zip entry only when docx4j asks for it.
+ */
+public abstract class AbstractZipPartStore implements PartStore {
+	private static final Logger LOG = LoggerFactory.getLogger(AbstractZipPartStore.class);
+
+	@Override
+	public InputStream loadPart(String partName) throws Docx4JException {
+		ZipDirectory.Entry entry = getDirectory().getEntry(partName);
+
+		if (entry == null) {
+			LOG.debug("Part '" + partName + "' not present in part store");
+			return null;
+		}
+
+		try {
+			InputStream in = openEntry(entry);
+
+			switch (entry.getMethod()) {
+				case ZipDirectory.Entry.STORED:
+					return in;
+				case ZipDirectory.Entry.DEFLATED:
+					return new EntryInflaterInputStream(in);
+				default:
+					in.close();
+					throw new Docx4JException("Unsupported compression method " + entry.getMethod() + " for " + partName);
+			}
+		} catch (IOException ioe) {
+			throw new Docx4JException("Error reading part " + partName, ioe);
+		}
+	}
+
+	@Override
+	public long getPartSize(String partName) {
+		ZipDirectory.Entry entry = getDirectory().getEntry(partName);
+
+		return (entry == null) ? -1 : entry.getSize();
+	}
+
+	@Override
+	public void setOutputStream(OutputStream os) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void saveContentTypes(ContentTypeManager ctm) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	// raw as PartStore declares it, a wildcard wouldn't override it
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void saveJaxbXmlPart(JaxbXmlPart part) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void saveCustomXmlDataStoragePart(CustomXmlDataStoragePart part) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void saveXmlPart(XmlPart part) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void saveBinaryPart(Part part) throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void finishSave() throws Docx4JException {
+		throw new Docx4JException("Part store is read only");
+	}
+
+	@Override
+	public void setSourcePartStore(PartStore partStore) {
+		// nothing to copy from, parts are only ever read from this store
+	}
+
+	@Override
+	public void dispose() {
+		// nothing to release by default
+	}
+
+	protected abstract ZipDirectory getDirectory();
+
+	/**
+	 * Returns a stream of the raw (possibly compressed) data for the given entry.
+	 */
+	protected abstract InputStream openEntry(ZipDirectory.Entry entry) throws IOException;
+
+	/**
+	 * Inflates raw deflate data, supplying the trailing dummy byte that {@link Inflater} needs in
+	 * 'nowrap' mode and releasing the native inflater on close.
+	 */
+	private static class EntryInflaterInputStream extends InflaterInputStream {
+		private boolean eof;
+
+		EntryInflaterInputStream(InputStream in) {
+			super(in, new Inflater(true), 8192);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				inf.end();
+			}
+		}
+
+		@Override
+		protected void fill() throws IOException {
+			if (eof) {
+				throw new IOException("Unexpected end of zip entry");
+			}
+
+			len = in.read(buf, 0, buf.length);
+
+			if (len == -1) {
+				buf[0] = 0;
+				len = 1;
+				eof = true;
+			}
+
+			inf.setInput(buf, 0, len);
+		}
+	}
+}
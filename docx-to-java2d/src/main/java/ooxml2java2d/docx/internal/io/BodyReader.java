@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.docx4j.jaxb.Context;
+import org.docx4j.jaxb.JaxbValidationEventHandler;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.wml.P;
+import org.docx4j.wml.SectPr;
+
+/**
+ * Reads the body of a main document part (document.xml) one block at a time using StAX.
+ *
+ * Each top level element of the body (paragraph, table, ...) is unmarshalled on its own as the reader
+ * reaches it, producing the same objects that {@link org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart#getContent()}
+ * would contain without the whole document having to be held in memory.
+ */
+public class BodyReader implements Iterator<Object>, Closeable {
+	private static final String ELEMENT_BODY = "body";
+	private static final String ELEMENT_P = "p";
+	private static final String ELEMENT_PPR = "pPr";
+	private static final String ELEMENT_SECTPR = "sectPr";
+	private static final String ELEMENT_TBL = "tbl";
+	private InputStream in;
+	private XMLStreamReader reader;
+	private Unmarshaller unmarshaller;
+	private Object next;
+
+	public BodyReader(InputStream in) throws IOException {
+		this.in = in;
+
+		try {
+			this.reader = createReader(in);
+			this.unmarshaller = createUnmarshaller();
+
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && isWordElement(reader, ELEMENT_BODY)) {
+					reader.next();
+					this.next = readNext();
+					break;
+				}
+			}
+		} catch (XMLStreamException | JAXBException e) {
+			close();
+			throw new IOException("Error reading document body", e);
+		}
+	}
+
+	/**
+	 * Scans the document for its section properties without unmarshalling anything else, returning them
+	 * in document order.
+	 */
+	public static List<SectPr> readSections(InputStream in) throws IOException {
+		return summarize(in).getSections();
+	}
+
+	/**
+	 * Scans the document for its section properties, unmarshalling nothing else, and counts its paragraphs and tables.
+	 */
+	public static BodySummary summarize(InputStream in) throws IOException {
+		List<SectPr> sections = new ArrayList<>();
+		Deque<String> path = new ArrayDeque<>();
+		int paragraphs = 0;
+		int tables = 0;
+
+		try {
+			XMLStreamReader reader = createReader(in);
+			Unmarshaller unmarshaller = createUnmarshaller();
+
+			try {
+				while (reader.getEventType() != XMLStreamConstants.END_DOCUMENT) {
+					if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+						String parent = path.peek();
+
+						if (isWordElement(reader, ELEMENT_SECTPR) && (ELEMENT_PPR.equals(parent) || ELEMENT_BODY.equals(parent))) {
+							// unmarshalling leaves the reader on the event following the element
+							sections.add(unmarshaller.unmarshal(reader, SectPr.class).getValue());
+							continue;
+						} else if (isWordElement(reader, ELEMENT_P)) {
+							paragraphs++;
+						} else if (isWordElement(reader, ELEMENT_TBL)) {
+							tables++;
+						}
+
+						path.push(reader.getLocalName());
+					} else if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
+						path.pop();
+					}
+
+					reader.next();
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException | JAXBException e) {
+			throw new IOException("Error reading document sections", e);
+		}
+
+		return new BodySummary(sections, paragraphs, tables);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return next != null;
+	}
+
+	@Override
+	public Object next() {
+		if (next == null) {
+			throw new NoSuchElementException();
+		}
+
+		Object current = next;
+
+		try {
+			next = readNext();
+		} catch (XMLStreamException | JAXBException e) {
+			throw new IllegalStateException("Error reading document body", e);
+		}
+
+		return current;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() throws IOException {
+		next = null;
+
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException("Error closing document body", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	private Object readNext() throws XMLStreamException, JAXBException {
+		while (true) {
+			switch (reader.getEventType()) {
+				case XMLStreamConstants.START_ELEMENT:
+					QName name = reader.getName();
+					Object obj = unmarshaller.unmarshal(reader);
+
+					if (obj instanceof P || obj instanceof JAXBElement) {
+						return obj;
+					} else if (!(obj instanceof SectPr)) {
+						// match the body content list, which only holds paragraphs unwrapped
+						return wrap(name, obj);
+					}
+
+					// the final section properties are read up front with readSections
+				break;
+				case XMLStreamConstants.END_ELEMENT:
+				case XMLStreamConstants.END_DOCUMENT:
+					return null;
+				default:
+					reader.next();
+			}
+		}
+	}
+
+	private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		return factory.createXMLStreamReader(in);
+	}
+
+	private static Unmarshaller createUnmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = Context.jc.createUnmarshaller();
+
+		unmarshaller.setEventHandler(new JaxbValidationEventHandler());
+
+		return unmarshaller;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> JAXBElement<T> wrap(QName name, T value) {
+		return new JAXBElement<>(name, (Class<T>) value.getClass(), value);
+	}
+
+	private static boolean isWordElement(XMLStreamReader reader, String localName) {
+		return Namespaces.NS_WORD12.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.util.List;
+
+import org.docx4j.wml.SectPr;
+
+/**
+ * The section properties of a document body along with counts of its paragraphs and tables, as gathered by
+ * {@link BodyReader#summarize(java.io.InputStream)}.
+ */
+public class BodySummary {
+	private List<SectPr> sections;
+	private int paragraphCount;
+	private int tableCount;
+
+	public BodySummary(List<SectPr> sections, int paragraphCount, int tableCount) {
+		this.sections = sections;
+		this.paragraphCount = paragraphCount;
+		this.tableCount = tableCount;
+	}
+
+	public List<SectPr> getSections() {
+		return sections;
+	}
+
+	/**
+	 * The number of paragraphs anywhere in the body, including those within tables and text boxes.
+	 */
+	public int getParagraphCount() {
+		return paragraphCount;
+	}
+
+	/**
+	 * The number of tables anywhere in the body, including nested tables.
+	 */
+	public int getTableCount() {
+		return tableCount;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * An {@link javax.imageio.stream.ImageInputStream} that reads directly from a {@link ByteBuffer}, so image data held in a mapped or
+ * already loaded buffer can be decoded without first being copied into a byte array.
+ */
+public class ByteBufferImageInputStream extends ImageInputStreamImpl {
+	private ByteBuffer buffer;
+
+	public ByteBufferImageInputStream(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+	}
+
+	@Override
+	public int read() throws IOException {
+		checkClosed();
+		bitOffset = 0;
+
+		if (streamPos >= buffer.limit()) {
+			return -1;
+		}
+
+		return buffer.get((int) streamPos++) & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		checkClosed();
+		bitOffset = 0;
+
+		if (len == 0) {
+			return 0;
+		} else if (streamPos >= buffer.limit()) {
+			return -1;
+		}
+
+		int count = (int) Math.min(len, buffer.limit() - streamPos);
+		ByteBuffer view = buffer.duplicate();
+
+		view.position((int) streamPos);
+		view.get(b, off, count);
+		streamPos += count;
+
+		return count;
+	}
+
+	@Override
+	public long length() {
+		return buffer.limit();
+	}
+}
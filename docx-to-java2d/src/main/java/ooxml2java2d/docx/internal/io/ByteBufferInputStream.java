@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} that reads directly from a {@link ByteBuffer} without copying its contents.
+ */
+public class ByteBufferInputStream extends InputStream {
+	private ByteBuffer buffer;
+
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+		this.buffer.mark();
+	}
+
+	/**
+	 * Returns a view of the bytes that haven't been read yet.
+	 */
+	public ByteBuffer remaining() {
+		return buffer.slice();
+	}
+
+	@Override
+	public int read() {
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		} else if (!buffer.hasRemaining()) {
+			return -1;
+		}
+
+		int count = Math.min(len, buffer.remaining());
+
+		buffer.get(b, off, count);
+
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+
+		buffer.position(buffer.position() + count);
+
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public synchronized void mark(int readLimit) {
+		buffer.mark();
+	}
+
+	@Override
+	public synchronized void reset() {
+		buffer.reset();
+	}
+}
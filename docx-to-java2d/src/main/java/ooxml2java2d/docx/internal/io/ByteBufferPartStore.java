@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.ZipException;
+
+/**
+ * Reads parts straight out of a zip archive held in a {@link ByteBuffer}, such as a memory mapped file.
+ * Stored entries are returned as views of the buffer and deflated entries are inflated as they are read.
+ */
+public class ByteBufferPartStore extends AbstractZipPartStore {
+	private ByteBuffer archive;
+	private ZipDirectory directory;
+
+	public ByteBufferPartStore(ByteBuffer archive) throws IOException {
+		this.archive = archive.slice();
+		this.directory = ZipDirectory.read(this.archive);
+	}
+
+	@Override
+	protected ZipDirectory getDirectory() {
+		return directory;
+	}
+
+	@Override
+	protected InputStream openEntry(ZipDirectory.Entry entry) throws IOException {
+		ByteBuffer buffer = archive.duplicate();
+
+		// the offsets come from the archive itself, so a corrupt one mustn't be taken on trust
+		if (entry.getLocalHeaderOffset() > archive.limit() - ZipDirectory.LOCAL_HEADER_SIZE) {
+			throw new ZipException("Local header of " + entry.getName() + " is past the end of the archive");
+		}
+
+		buffer.position(entry.getLocalHeaderOffset());
+
+		int start = entry.getLocalHeaderOffset() + ZipDirectory.getDataOffset(buffer.slice());
+
+		if (start > archive.limit() || entry.getCompressedSize() > archive.limit() - start) {
+			throw new ZipException("Data of " + entry.getName() + " is past the end of the archive");
+		}
+
+		buffer.position(start);
+		buffer.limit((int) (start + entry.getCompressedSize()));
+
+		return new ByteBufferInputStream(buffer.slice());
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.zip.ZipException;
+
+/**
+ * Reads parts from a zip archive through a {@link SeekableByteChannel}, such as one backed by range requests to an
+ * object store. Only the central directory is read up front; each entry's bytes are fetched from the channel when
+ * docx4j asks for the part, so parts that are never used are never read.
+ *
+ * The channel is not closed by the store and must stay open for as long as parts may be loaded.
+ */
+public class ChannelPartStore extends AbstractZipPartStore {
+	private static final int BUFFER_SIZE = 8192;
+	private SeekableByteChannel channel;
+	private ZipDirectory directory;
+
+	public ChannelPartStore(SeekableByteChannel channel) throws IOException {
+		this.channel = channel;
+
+		long size = channel.size();
+		ByteBuffer tail = readTail(size, ZipDirectory.END_OF_DIRECTORY_SIZE);
+		int end = ZipDirectory.findEndOfDirectory(tail);
+
+		if (end < 0) {
+			// the archive has a comment, so search as far back as the longest one could reach
+			tail = readTail(size, ZipDirectory.MAX_END_OF_DIRECTORY_SIZE);
+			end = ZipDirectory.findEndOfDirectory(tail);
+		}
+
+		if (end < 0) {
+			throw new ZipException("End of central directory not found");
+		}
+
+		int directorySize = ZipDirectory.getDirectorySize(tail, end);
+
+		this.directory = ZipDirectory.read(read(ZipDirectory.getDirectoryOffset(tail, end), directorySize), directorySize);
+	}
+
+	@Override
+	protected ZipDirectory getDirectory() {
+		return directory;
+	}
+
+	@Override
+	protected InputStream openEntry(ZipDirectory.Entry entry) throws IOException {
+		ByteBuffer localHeader = read(entry.getLocalHeaderOffset(), ZipDirectory.LOCAL_HEADER_SIZE);
+
+		return new RangeInputStream(entry.getLocalHeaderOffset() + ZipDirectory.getDataOffset(localHeader), entry.getCompressedSize());
+	}
+
+	private ByteBuffer readTail(long size, int length) throws IOException {
+		int tailSize = (int) Math.min(size, length);
+
+		return read(size - tailSize, tailSize);
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+
+		read(position, buffer);
+		buffer.flip();
+
+		return buffer;
+	}
+
+	// Fills the buffer from the given position, locking the channel as parts may be loaded concurrently
+	private void read(long position, ByteBuffer buffer) throws IOException {
+		synchronized (channel) {
+			channel.position(position);
+
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("Unexpected end of zip archive");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Streams a range of the channel, fetching it a buffer at a time.
+	 */
+	private class RangeInputStream extends InputStream {
+		private long position;
+		private long remaining;
+		private ByteBuffer buffer = ByteBuffer.allocate(0);
+
+		RangeInputStream(long position, long length) {
+			this.position = position;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return fill() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			} else if (!fill()) {
+				return -1;
+			}
+
+			int count = Math.min(len, buffer.remaining());
+
+			buffer.get(b, off, count);
+
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+		// Returns false once the whole range has been read
+		private boolean fill() throws IOException {
+			if (!buffer.hasRemaining() && remaining > 0) {
+				int length = (int) Math.min(remaining, BUFFER_SIZE);
+
+				if (buffer.capacity() < length) {
+					buffer = ByteBuffer.allocate(length);
+				}
+
+				buffer.clear();
+				buffer.limit(length);
+				ChannelPartStore.this.read(position, buffer);
+				buffer.flip();
+
+				position += length;
+				remaining -= length;
+			}
+
+			return buffer.hasRemaining();
+		}
+	}
+}
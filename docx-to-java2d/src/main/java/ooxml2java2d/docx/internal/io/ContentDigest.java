@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Builds a SHA-256 hash of some content, for use as a cache key.
+ */
+public class ContentDigest {
+	private static final String ALGORITHM = "SHA-256";
+	private MessageDigest digest;
+
+	public ContentDigest() {
+		try {
+			this.digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(ALGORITHM + " not supported", e);
+		}
+	}
+
+	/**
+	 * Adds the remaining bytes of the buffer, without changing its position.
+	 */
+	public ContentDigest update(ByteBuffer content) {
+		digest.update(content.duplicate());
+		return this;
+	}
+
+	/**
+	 * Adds the rest of the stream, which is closed afterwards.
+	 */
+	public ContentDigest update(InputStream content) throws IOException {
+		byte[] buffer = new byte[8192];
+
+		try (InputStream in = content) {
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+
+		return this;
+	}
+
+	public ContentDigest update(String content) {
+		digest.update(content.getBytes(StandardCharsets.UTF_8));
+		return this;
+	}
+
+	/**
+	 * Completes the hash, returning it wrapped in a buffer so it can be used as a map key.
+	 */
+	public ByteBuffer toKey() {
+		return ByteBuffer.wrap(digest.digest());
+	}
+}
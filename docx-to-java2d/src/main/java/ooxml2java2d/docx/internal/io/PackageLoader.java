@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import ooxml2java2d.docx.LoadMode;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.io3.Load3;
+import org.docx4j.openpackaging.io3.stores.PartStore;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+
+/**
+ * Loads a {@link WordprocessingMLPackage} from the various sources a document can be provided in.
+ */
+public final class PackageLoader {
+	private PackageLoader() { }
+
+	public static WordprocessingMLPackage load(File docx, LoadMode mode) throws IOException {
+		switch (mode) {
+			case LAZY:
+				return load(map(docx));
+			case PARALLEL:
+				WordprocessingMLPackage word = load(map(docx));
+
+				ParallelPartLoader.unmarshal(word);
+
+				return word;
+			default:
+				try {
+					return WordprocessingMLPackage.load(docx);
+				} catch (Docx4JException e) {
+					throw new IOException("Error loading document", e);
+				}
+		}
+	}
+
+	public static WordprocessingMLPackage load(ByteBuffer docx) throws IOException {
+		if (ZipDirectory.findEndOfDirectory(docx) < 0) {
+			// not a zip archive, let docx4j work out what it is (e.g. Flat OPC XML)
+			try {
+				return WordprocessingMLPackage.load(new ByteBufferInputStream(docx));
+			} catch (Docx4JException e) {
+				throw new IOException("Error loading document", e);
+			}
+		}
+
+		return load(new ByteBufferPartStore(docx));
+	}
+
+	public static WordprocessingMLPackage load(SeekableByteChannel docx) throws IOException {
+		return load(new ChannelPartStore(docx));
+	}
+
+	public static WordprocessingMLPackage load(PartStore partStore) throws IOException {
+		OpcPackage opc;
+
+		try {
+			opc = new Load3(partStore).get();
+		} catch (Docx4JException e) {
+			throw new IOException("Error loading document", e);
+		}
+
+		if (!(opc instanceof WordprocessingMLPackage)) {
+			throw new IOException("Not a word processing document: " + opc.getClass().getName());
+		}
+
+		return (WordprocessingMLPackage) opc;
+	}
+
+	/**
+	 * Opens the raw content of a part straight from the package's part store, bypassing any copy of the part
+	 * that docx4j holds in memory.
+	 */
+	public static InputStream openPart(Part part) throws IOException {
+		PartStore partStore = part.getPackage().getSourcePartStore();
+		String partName = part.getPartName().getName();
+
+		if (partStore == null) {
+			throw new IOException("No part store to read " + partName + " from");
+		}
+
+		try {
+			InputStream in = partStore.loadPart(partName.substring(1));
+
+			if (in == null) {
+				throw new IOException("Missing part " + partName);
+			}
+
+			return in;
+		} catch (Docx4JException e) {
+			throw new IOException("Error reading part " + partName, e);
+		}
+	}
+
+	/**
+	 * Memory maps the whole of a file, rather than copying it onto the heap.
+	 */
+	public static ByteBuffer map(File docx) throws IOException {
+		try (FileChannel channel = FileChannel.open(docx.toPath(), StandardOpenOption.READ)) {
+			// the mapping remains valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import ooxml2java2d.docx.internal.BackgroundExecutor;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.ThemePart;
+import org.docx4j.openpackaging.parts.WordprocessingML.DocumentSettingsPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.FontTablePart;
+import org.docx4j.openpackaging.parts.WordprocessingML.FooterPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.NumberingDefinitionsPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.StyleDefinitionsPart;
+
+/**
+ * Unmarshals the parts of a loaded package that rendering needs, with the auxiliary parts (headers, footers,
+ * styles, numbering, settings, font table and theme) handed to the {@link BackgroundExecutor} while the main
+ * document part is unmarshalled on the calling thread.
+ */
+public final class ParallelPartLoader {
+	private static final Class<?>[] AUXILIARY_PARTS = {
+		HeaderPart.class, FooterPart.class, StyleDefinitionsPart.class, NumberingDefinitionsPart.class,
+		DocumentSettingsPart.class, FontTablePart.class, ThemePart.class,
+	};
+
+	private ParallelPartLoader() { }
+
+	public static void unmarshal(WordprocessingMLPackage word) throws IOException {
+		List<Future<Object>> results = new ArrayList<>();
+
+		for (Part part : word.getParts().getParts().values()) {
+			if (isAuxiliary(part)) {
+				final JaxbXmlPart<?> jaxbPart = (JaxbXmlPart<?>) part;
+
+				// unlike getJaxbElement(), getContents() fails rather than leaving a part that can't be read empty
+				results.add(BackgroundExecutor.get().submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Docx4JException {
+						return jaxbPart.getContents();
+					}
+				}));
+			}
+		}
+
+		try {
+			word.getMainDocumentPart().getContents();
+
+			for (Future<Object> result : results) {
+				result.get();
+			}
+		} catch (Docx4JException e) {
+			throw new IOException("Error loading document", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error loading document", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted loading document", e);
+		}
+	}
+
+	private static boolean isAuxiliary(Part part) {
+		for (Class<?> type : AUXILIARY_PARTS) {
+			if (type.isInstance(part)) {
+				return !((JaxbXmlPart<?>) part).isUnmarshalled();
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a zip archive, read without inflating or copying any of the entries.
+ */
+public class ZipDirectory {
+	public static final int LOCAL_HEADER_SIZE = 30;
+	public static final int END_OF_DIRECTORY_SIZE = 22;
+	public static final int MAX_END_OF_DIRECTORY_SIZE = END_OF_DIRECTORY_SIZE + 0xFFFF;
+	private static final int END_OF_DIRECTORY_SIGNATURE = 0x06054b50;
+	private static final int DIRECTORY_ENTRY_SIGNATURE = 0x02014b50;
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int DIRECTORY_ENTRY_SIZE = 46;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final Charset CP437 = Charset.forName("IBM437");
+	private Map<String, Entry> entries;
+
+	private ZipDirectory(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Reads the directory of an archive held entirely in the given buffer.
+	 */
+	public static ZipDirectory read(ByteBuffer archive) throws IOException {
+		ByteBuffer buffer = archive.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int end = findEndOfDirectory(buffer);
+
+		if (end < 0) {
+			throw new ZipException("End of central directory not found");
+		}
+
+		int offset = getDirectoryOffset(buffer, end);
+		int size = getDirectorySize(buffer, end);
+
+		if (offset > end) {
+			throw new ZipException("Central directory starts past its end record");
+		}
+
+		buffer.limit(end);
+		buffer.position(offset);
+
+		return read(buffer.slice(), size);
+	}
+
+	/**
+	 * Returns the position of the end of central directory record in the given buffer, or -1 if
+	 * there isn't one.
+	 */
+	public static int findEndOfDirectory(ByteBuffer buffer) {
+		ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int stop = Math.max(0, le.limit() - MAX_END_OF_DIRECTORY_SIZE);
+
+		for (int i = le.limit() - END_OF_DIRECTORY_SIZE; i >= stop; i--) {
+			if (le.getInt(i) == END_OF_DIRECTORY_SIGNATURE) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	public static int getDirectoryOffset(ByteBuffer buffer, int end) throws IOException {
+		return toInt(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(end + 16));
+	}
+
+	public static int getDirectorySize(ByteBuffer buffer, int end) throws IOException {
+		return toInt(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(end + 12));
+	}
+
+	/**
+	 * Returns the offset of the entry data from the start of its local header.
+	 *
+	 * @param localHeader A buffer containing at least the fixed size part of the local header
+	 */
+	public static int getDataOffset(ByteBuffer localHeader) throws IOException {
+		ByteBuffer le = localHeader.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+		if (le.remaining() < LOCAL_HEADER_SIZE || le.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+			throw new ZipException("Invalid local header");
+		}
+
+		return LOCAL_HEADER_SIZE + (le.getShort(26) & 0xFFFF) + (le.getShort(28) & 0xFFFF);
+	}
+
+	/**
+	 * Reads the directory records contained in the given buffer.
+	 */
+	public static ZipDirectory read(ByteBuffer directory, int size) throws IOException {
+		ByteBuffer buffer = directory.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		Map<String, Entry> entries = new LinkedHashMap<>();
+		int pos = 0;
+
+		if (size > buffer.limit()) {
+			throw new ZipException("Central directory extends past the end of the archive");
+		}
+
+		while (pos + DIRECTORY_ENTRY_SIZE <= size && buffer.getInt(pos) == DIRECTORY_ENTRY_SIGNATURE) {
+			int flags = buffer.getShort(pos + 8) & 0xFFFF;
+			int method = buffer.getShort(pos + 10) & 0xFFFF;
+			long compressedSize = buffer.getInt(pos + 20) & 0xFFFFFFFFL;
+			long uncompressedSize = buffer.getInt(pos + 24) & 0xFFFFFFFFL;
+			int nameLength = buffer.getShort(pos + 28) & 0xFFFF;
+			int extraLength = buffer.getShort(pos + 30) & 0xFFFF;
+			int commentLength = buffer.getShort(pos + 32) & 0xFFFF;
+			long offset = buffer.getInt(pos + 42) & 0xFFFFFFFFL;
+			byte[] name = new byte[nameLength];
+
+			if (pos + DIRECTORY_ENTRY_SIZE + nameLength > size) {
+				throw new ZipException("Truncated central directory entry");
+			}
+
+			buffer.position(pos + DIRECTORY_ENTRY_SIZE);
+			buffer.get(name);
+
+			String entryName = new String(name, (flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : CP437);
+
+			entries.put(entryName, new Entry(entryName, method, compressedSize, uncompressedSize, toInt(offset)));
+			pos += DIRECTORY_ENTRY_SIZE + nameLength + extraLength + commentLength;
+		}
+
+		return new ZipDirectory(entries);
+	}
+
+	public Entry getEntry(String name) {
+		return entries.get(name);
+	}
+
+	public Collection<Entry> getEntries() {
+		return Collections.unmodifiableCollection(entries.values());
+	}
+
+	private static int toInt(long value) throws IOException {
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new ZipException("Zip64 archives are not supported");
+		}
+
+		return (int) value;
+	}
+
+	private static int toInt(int value) throws IOException {
+		return toInt(value & 0xFFFFFFFFL);
+	}
+
+	public static class Entry {
+		public static final int STORED = 0;
+		public static final int DEFLATED = 8;
+		private String name;
+		private int method;
+		private long compressedSize;
+		private long size;
+		private int localHeaderOffset;
+
+		public Entry(String name, int method, long compressedSize, long size, int localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getMethod() {
+			return method;
+		}
+
+		public long getCompressedSize() {
+			return compressedSize;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public int getLocalHeaderOffset() {
+			return localHeaderOffset;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+import org.docx4j.wml.Lvl;
+import org.docx4j.wml.PPr;
+
+/**
+ * One level of a list: how its items are numbered and labelled, and the paragraph properties they take on.
+ */
+public class LevelDefinition {
+	private final int level;
+	private final ListFormat format;
+	private final String text;
+	private final int start;
+	private final boolean restart;
+	private final PPr paragraphProperties;
+
+	public LevelDefinition(int level, ListFormat format, String text, int start, PPr paragraphProperties) {
+		this(level, format, text, start, false, paragraphProperties);
+	}
+
+	/**
+	 * @param restart Whether the level restarts at its start value when its list is first used, rather than carrying
+	 * on from other lists of the same abstract definition
+	 */
+	public LevelDefinition(int level, ListFormat format, String text, int start, boolean restart, PPr paragraphProperties) {
+		this.level = level;
+		this.format = format;
+		this.text = text;
+		this.start = start;
+		this.restart = restart;
+		this.paragraphProperties = paragraphProperties;
+	}
+
+	static LevelDefinition read(int level, Lvl lvl, Integer startOverride) {
+		int start = 0;
+
+		if (startOverride != null) {
+			start = startOverride;
+		} else if (lvl.getStart() != null && lvl.getStart().getVal() != null) {
+			start = lvl.getStart().getVal().intValue();
+		}
+
+		return new LevelDefinition(
+			level,
+			ListFormat.valueOf(lvl.getNumFmt() == null ? null : lvl.getNumFmt().getVal()),
+			(lvl.getLvlText() == null) ? null : lvl.getLvlText().getVal(),
+			start,
+			startOverride != null,
+			lvl.getPPr()
+		);
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public ListFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * The label template, where %1 to %9 stand for the current values of the first to ninth levels.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Whether the level restarts when its list is first used, as its start value is overridden.
+	 */
+	public boolean isRestart() {
+		return restart;
+	}
+
+	public PPr getParagraphProperties() {
+		return paragraphProperties;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import ooxml2java2d.docx.internal.FontConfig;
+import ooxml2java2d.docx.internal.ParagraphStyle;
+
+/**
+ * The state of a document's lists during a render: how many items each level of each abstract list definition has had,
+ * along with the label sizes and level styles already worked out, so that long lists don't repeat the same work per
+ * item.
+ *
+ * Lists sharing an abstract definition share their counters, so numbering carries on from one to the next unless a
+ * list overrides the start value of a level, which restarts that level the first time the list is used.
+ */
+public class ListCounters {
+	private Map<String, Counter> counters = new HashMap<>();
+	private Set<ListDefinition> usedLists = Collections.newSetFromMap(new IdentityHashMap<ListDefinition, Boolean>());
+	private Map<FontConfig, Map<String, Rectangle2D>> labelBounds = new IdentityHashMap<>();
+	private Map<LevelDefinition, ParagraphStyle> levelBaseStyles = new IdentityHashMap<>();
+	private Map<LevelDefinition, ParagraphStyle> levelStyles = new IdentityHashMap<>();
+
+	/**
+	 * Counts a new item at the given level of a list, restarting any levels below it, and returns its label.
+	 * The label is empty for levels that aren't numbered.
+	 */
+	public String next(ListDefinition list, int level) {
+		Counter counter = counters.get(list.getAbstractId());
+
+		if (counter == null) {
+			counter = new Counter(list.getLevelCount());
+			counters.put(list.getAbstractId(), counter);
+
+			for (int i = 0; i < list.getLevelCount(); i++) {
+				counter.restart(list, i);
+			}
+		}
+
+		if (usedLists.add(list)) {
+			for (int i = 0; i < list.getLevelCount(); i++) {
+				if (list.getLevel(i) != null && list.getLevel(i).isRestart()) {
+					counter.restart(list, i);
+				}
+			}
+		}
+
+		counter.counts[level]++;
+
+		for (int i = level + 1; i < list.getLevelCount(); i++) {
+			counter.restart(list, i);
+		}
+
+		LevelDefinition definition = list.getLevel(level);
+
+		switch (definition.getFormat()) {
+			case BULLET:
+				// the bullet character of the level is usually in a symbol font, so always use our own
+				return ListFormat.BULLET_TEXT;
+			case NONE:
+				return "";
+			default:
+				return (definition.getText() == null) ? "" : formatLabel(list, counter, definition.getText());
+		}
+	}
+
+	/**
+	 * Returns the size of a label in the given font, measuring it only the first time.
+	 */
+	public Rectangle2D getLabelBounds(FontConfig fontConfig, String label) {
+		Map<String, Rectangle2D> bounds = labelBounds.get(fontConfig);
+
+		if (bounds == null) {
+			bounds = new HashMap<>();
+			labelBounds.put(fontConfig, bounds);
+		}
+
+		Rectangle2D labelBound = bounds.get(label);
+
+		if (labelBound == null) {
+			labelBound = fontConfig.getStringBoxSize(label);
+			bounds.put(label, labelBound);
+		}
+
+		return labelBound;
+	}
+
+	/**
+	 * Returns the style last resolved for a level on top of the given paragraph style, or null if the level was last
+	 * used with a different paragraph style. Resolved level styles must be copied rather than modified.
+	 */
+	public ParagraphStyle getLevelStyle(LevelDefinition level, ParagraphStyle baseStyle) {
+		return (levelBaseStyles.get(level) == baseStyle) ? levelStyles.get(level) : null;
+	}
+
+	public void putLevelStyle(LevelDefinition level, ParagraphStyle baseStyle, ParagraphStyle style) {
+		levelBaseStyles.put(level, baseStyle);
+		levelStyles.put(level, style);
+	}
+
+	private static String formatLabel(ListDefinition list, Counter counter, String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 4);
+
+		int i = 0;
+
+		while (i < text.length()) {
+			char c = text.charAt(i);
+
+			if (c == '%' && i + 1 < text.length() && text.charAt(i + 1) >= '1' && text.charAt(i + 1) <= '9') {
+				LevelDefinition referenced = list.getLevel(text.charAt(i + 1) - '1');
+
+				if (referenced != null) {
+					// a level that hasn't had an item yet shows its start value
+					int count = Math.max(counter.counts[referenced.getLevel()], 1);
+
+					sb.append(referenced.getFormat().format(counter.starts[referenced.getLevel()] + count - 1));
+				}
+
+				i += 2;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * The items each level has had since it last restarted, and the value it restarted at.
+	 */
+	private static class Counter {
+		private final int[] counts;
+		private final int[] starts;
+
+		Counter(int levels) {
+			counts = new int[levels];
+			starts = new int[levels];
+		}
+
+		void restart(ListDefinition list, int level) {
+			LevelDefinition definition = list.getLevel(level);
+
+			counts[level] = 0;
+			starts[level] = (definition == null) ? 0 : definition.getStart();
+		}
+	}
+}
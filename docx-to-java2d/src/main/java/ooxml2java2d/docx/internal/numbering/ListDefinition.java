@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+/**
+ * A list (numbering instance) of a document, with the levels of its abstract definition and any overrides applied.
+ * Lists with the same abstract definition share their numbering, so that a list can carry on where another left off.
+ */
+public class ListDefinition {
+	public static final int MAX_LEVELS = 9;
+	private final String id;
+	private final String abstractId;
+	private final LevelDefinition[] levels;
+
+	public ListDefinition(String id, String abstractId, LevelDefinition[] levels) {
+		this.id = id;
+		this.abstractId = abstractId;
+		this.levels = levels.clone();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getAbstractId() {
+		return abstractId;
+	}
+
+	/**
+	 * Returns the definition of a level, or null if the list doesn't define it.
+	 */
+	public LevelDefinition getLevel(int level) {
+		return (level < 0 || level >= levels.length) ? null : levels[level];
+	}
+
+	public int getLevelCount() {
+		return levels.length;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.docx4j.wml.Lvl;
+import org.docx4j.wml.Numbering;
+
+/**
+ * The lists of a document, indexed once by their numbering id with each level definition resolved up front.
+ * Nothing here is modified once created; the state of a render's lists is kept in {@link ListCounters}.
+ */
+public class ListDefinitions {
+	private static final ListDefinitions EMPTY = new ListDefinitions(Collections.<String, ListDefinition>emptyMap());
+	private final Map<String, ListDefinition> lists;
+
+	public ListDefinitions(Map<String, ListDefinition> lists) {
+		this.lists = Collections.unmodifiableMap(new HashMap<>(lists));
+	}
+
+	public static ListDefinitions empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Indexes the num and abstractNum definitions of a numbering part, applying level and start overrides.
+	 * Abstract definitions linked to a numbering style are not followed.
+	 */
+	public static ListDefinitions read(Numbering numbering) {
+		Map<String, Numbering.AbstractNum> abstractNums = new HashMap<>();
+		Map<String, ListDefinition> lists = new HashMap<>();
+
+		for (Numbering.AbstractNum abstractNum : numbering.getAbstractNum()) {
+			abstractNums.put(String.valueOf(abstractNum.getAbstractNumId()), abstractNum);
+		}
+
+		for (Numbering.Num num : numbering.getNum()) {
+			if (num.getNumId() == null || num.getAbstractNumId() == null) {
+				continue;
+			}
+
+			String abstractId = String.valueOf(num.getAbstractNumId().getVal());
+			Numbering.AbstractNum abstractNum = abstractNums.get(abstractId);
+			Lvl[] lvls = new Lvl[ListDefinition.MAX_LEVELS];
+			Integer[] startOverrides = new Integer[ListDefinition.MAX_LEVELS];
+
+			if (abstractNum != null) {
+				for (Lvl lvl : abstractNum.getLvl()) {
+					if (isLevel(lvl.getIlvl() == null ? -1 : lvl.getIlvl().intValue())) {
+						lvls[lvl.getIlvl().intValue()] = lvl;
+					}
+				}
+			}
+
+			for (Numbering.Num.LvlOverride override : num.getLvlOverride()) {
+				int level = (override.getIlvl() == null) ? -1 : override.getIlvl().intValue();
+
+				if (isLevel(level)) {
+					if (override.getLvl() != null) {
+						lvls[level] = override.getLvl();
+					}
+
+					if (override.getStartOverride() != null && override.getStartOverride().getVal() != null) {
+						startOverrides[level] = override.getStartOverride().getVal().intValue();
+					}
+				}
+			}
+
+			LevelDefinition[] levels = new LevelDefinition[ListDefinition.MAX_LEVELS];
+
+			for (int i = 0; i < levels.length; i++) {
+				if (lvls[i] != null) {
+					levels[i] = LevelDefinition.read(i, lvls[i], startOverrides[i]);
+				}
+			}
+
+			String id = num.getNumId().toString();
+
+			lists.put(id, new ListDefinition(id, abstractId, levels));
+		}
+
+		return new ListDefinitions(lists);
+	}
+
+	/**
+	 * Returns the list with the given numbering id, or null if there isn't one.
+	 */
+	public ListDefinition getList(String numId) {
+		return lists.get(numId);
+	}
+
+	private static boolean isLevel(int level) {
+		return level >= 0 && level < ListDefinition.MAX_LEVELS;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+import java.util.Locale;
+
+import org.docx4j.wml.NumberFormat;
+
+/**
+ * The ways a list level can number its items.
+ */
+public enum ListFormat {
+	BULLET,
+	DECIMAL,
+	LOWER_LETTER,
+	UPPER_LETTER,
+	LOWER_ROMAN,
+	UPPER_ROMAN,
+	NONE;
+
+	public static final String BULLET_TEXT = new Character((char) 0x2022).toString();
+	private static final int[] ROMAN_VALUES = { 1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1 };
+	private static final String[] ROMAN_NUMERALS = { "m", "cm", "d", "cd", "c", "xc", "l", "xl", "x", "ix", "v", "iv", "i" };
+	private static final int LETTERS = 26;
+
+	/**
+	 * Maps a WordprocessingML number format onto the formats supported here, falling back to decimal.
+	 */
+	public static ListFormat valueOf(NumberFormat numberFormat) {
+		if (numberFormat == null) {
+			return DECIMAL;
+		}
+
+		switch (numberFormat) {
+			case BULLET:
+				return BULLET;
+			case LOWER_LETTER:
+				return LOWER_LETTER;
+			case UPPER_LETTER:
+				return UPPER_LETTER;
+			case LOWER_ROMAN:
+				return LOWER_ROMAN;
+			case UPPER_ROMAN:
+				return UPPER_ROMAN;
+			case NONE:
+				return NONE;
+			default:
+				return DECIMAL;
+		}
+	}
+
+	/**
+	 * Formats the value of a list item's counter, e.g. 4 as "4", "d" or "iv".
+	 */
+	public String format(int value) {
+		switch (this) {
+			case BULLET:
+				return BULLET_TEXT;
+			case LOWER_LETTER:
+				return toLetters(value);
+			case UPPER_LETTER:
+				return toLetters(value).toUpperCase(Locale.ENGLISH);
+			case LOWER_ROMAN:
+				return toRoman(value);
+			case UPPER_ROMAN:
+				return toRoman(value).toUpperCase(Locale.ENGLISH);
+			case NONE:
+				return "";
+			default:
+				return Integer.toString(value);
+		}
+	}
+
+	// Word continues a, b, ... z with aa, bb, ... zz, aaa, ...
+	private static String toLetters(int value) {
+		if (value < 1) {
+			return Integer.toString(value);
+		}
+
+		char letter = (char) ('a' + (value - 1) % LETTERS);
+		int repeat = (value - 1) / LETTERS + 1;
+		StringBuilder sb = new StringBuilder(repeat);
+
+		for (int i = 0; i < repeat; i++) {
+			sb.append(letter);
+		}
+
+		return sb.toString();
+	}
+
+	private static String toRoman(int value) {
+		if (value < 1) {
+			return Integer.toString(value);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		int remaining = value;
+
+		for (int i = 0; i < ROMAN_VALUES.length; i++) {
+			while (remaining >= ROMAN_VALUES[i]) {
+				sb.append(ROMAN_NUMERALS[i]);
+				remaining -= ROMAN_VALUES[i];
+			}
+		}
+
+		return sb.toString();
+	}
+}
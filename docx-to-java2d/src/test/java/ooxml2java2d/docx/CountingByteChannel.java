@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Wraps a channel, counting the bytes read through it.
+ */
+public class CountingByteChannel implements SeekableByteChannel {
+	private SeekableByteChannel channel;
+	private long bytesRead;
+
+	public CountingByteChannel(SeekableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		int read = channel.read(dst);
+
+		if (read > 0) {
+			bytesRead += read;
+		}
+
+		return read;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		return channel.write(src);
+	}
+
+	@Override
+	public long position() throws IOException {
+		return channel.position();
+	}
+
+	@Override
+	public SeekableByteChannel position(long newPosition) throws IOException {
+		channel.position(newPosition);
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		return channel.size();
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long size) throws IOException {
+		channel.truncate(size);
+		return this;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -17,17 +17,47 @@
 package ooxml2java2d.docx;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.font.TextAttribute;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import ooxml2java2d.docx.internal.FontConfig;
+import ooxml2java2d.docx.internal.WordMetricsCache;
+import ooxml2java2d.docx.internal.io.ZipDirectory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.wml.P;
+import org.docx4j.wml.Style;
+import org.docx4j.wml.Tbl;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -227,6 +257,78 @@ public class DocxRendererTest {
 		assertEquals(x += 934, actions.get(17).getX());
 	}
 
+	@Test
+	public void testFontLibrary() throws IOException {
+		File dejaVu = new File("/usr/share/fonts/truetype/dejavu");
+
+		assumeTrue(new File(dejaVu, "DejaVuSerif-Bold.ttf").isFile());
+
+		File directory = Files.createTempDirectory("fonts").toFile();
+		File indexFile = new File(directory, "fonts.index");
+
+		for (String name : new String[] { "DejaVuSerif.ttf", "DejaVuSerif-Bold.ttf" }) {
+			Files.copy(new File(dejaVu, name).toPath(), new File(directory, name).toPath());
+		}
+
+		FontLibrary library = new FontLibrary(directory);
+
+		library.setIndexFile(indexFile);
+		library.addSubstitution("Times New Roman", "DejaVu Serif");
+		library.setFallbackFamily("DejaVu Serif");
+
+		try {
+			library.install();
+			new DocxRenderer(TEST_FONT_STYLE).render(builder);
+		} finally {
+			FontLibrary.uninstall();
+		}
+
+		List<Font> actions = builder.getPages().get(0).getActions(Font.class);
+
+		assertTrue(indexFile.isFile());
+		assertEquals("DejaVu Serif Bold", actions.get(0).getFontName());
+		assertEquals("DejaVu Serif", actions.get(2).getFamily());
+	}
+
+	@Test
+	public void testOpenTypeMetrics() throws IOException {
+		File dejaVu = new File("/usr/share/fonts/truetype/dejavu");
+
+		assumeTrue(new File(dejaVu, "DejaVuSans.ttf").isFile());
+
+		FontLibrary library = new FontLibrary(dejaVu);
+		MockGraphicsBuilder jdkBuilder = new MockGraphicsBuilder();
+		// configs held from before a library is installed, e.g. by cached style sheets, pick it up too
+		FontConfig timesNewRoman = FontConfig.getDefault().withName("Times New Roman");
+
+		library.addSubstitution("Times New Roman", "DejaVu Sans");
+		library.setFallbackFamily("DejaVu Sans");
+
+		try {
+			library.install();
+			new DocxRenderer(TEST_WORD_WRAP).render(jdkBuilder);
+
+			library.setOpenTypeMetrics(true);
+			library.install();
+			new DocxRenderer(TEST_WORD_WRAP).render(builder);
+
+			assertSame(timesNewRoman, FontConfig.getDefault().withName("Times New Roman"));
+			assertTrue(timesNewRoman.hasOpenTypeMetrics());
+		} finally {
+			FontLibrary.uninstall();
+		}
+
+		assertFalse(timesNewRoman.hasOpenTypeMetrics());
+		assertEquals(jdkBuilder.getPages().size(), builder.getPages().size());
+
+		for (int i = 0; i < builder.getPages().size(); i++) {
+			assertEquals(
+				jdkBuilder.getPages().get(i).getActions(DrawStringAction.class).toString(),
+				builder.getPages().get(i).getActions(DrawStringAction.class).toString()
+			);
+		}
+	}
+
 	@Test
 	public void testFontStyle() throws IOException {
 		new DocxRenderer(TEST_FONT_STYLE).render(builder);
@@ -882,6 +984,425 @@ public class DocxRendererTest {
 		assertEquals(947, r3.getHeight());
 	}
 
+	@Test
+	public void testLoadInputStream() throws IOException {
+		try (InputStream in = new FileInputStream(TEST_IMAGE_INLINE)) {
+			assertSameOutput(TEST_IMAGE_INLINE, new DocxRenderer(in));
+		}
+	}
+
+	@Test
+	public void testLoadByteArray() throws IOException {
+		assertSameOutput(TEST_IMAGE_INLINE, new DocxRenderer(Files.readAllBytes(TEST_IMAGE_INLINE.toPath())));
+	}
+
+	@Test
+	public void testLoadByteBuffer() throws IOException {
+		byte[] docx = Files.readAllBytes(TEST_IMAGE_INLINE.toPath());
+		ByteBuffer buffer = ByteBuffer.allocateDirect(docx.length + 10);
+
+		// the document doesn't need to start at the beginning of the buffer
+		buffer.position(10);
+		buffer.put(docx);
+		buffer.position(10);
+
+		assertSameOutput(TEST_IMAGE_INLINE, new DocxRenderer(buffer));
+	}
+
+	@Test
+	public void testLoadFileChannel() throws IOException {
+		try (FileChannel channel = FileChannel.open(TEST_IMAGE_INLINE.toPath(), StandardOpenOption.READ)) {
+			assertSameOutput(TEST_IMAGE_INLINE, new DocxRenderer(channel, 0, channel.size()));
+		}
+	}
+
+	@Test
+	public void testLoadSeekableByteChannel() throws IOException {
+		try (CountingByteChannel channel = new CountingByteChannel(Files.newByteChannel(TEST_IMAGE_INLINE.toPath()))) {
+			DocxRenderer renderer = new DocxRenderer(channel);
+			long loadBytes = channel.getBytesRead();
+
+			assertEquals(1, renderer.probe().getImageCount());
+
+			// the image and the styles aren't needed to probe the document
+			long probeBytes = channel.getBytesRead();
+
+			assertTrue(loadBytes < channel.size());
+			assertTrue(probeBytes < channel.size());
+
+			assertSameOutput(TEST_IMAGE_INLINE, renderer);
+			assertTrue(channel.getBytesRead() > probeBytes);
+		}
+	}
+
+	@Test
+	public void testStreaming() throws IOException {
+		File[] documents = {
+			TEST_FILE_LAYOUTS, TEST_HEADER_FIRST_EVEN_ODD, TEST_FOOTER_TABLE, TEST_TABLE_SIMPLE,
+			TEST_IMAGE_INLINE, TEST_SECTION_CONTINUOUS, TEST_LIST_BULLET, TEST_PAGE_BREAK,
+		};
+
+		for (File docx : documents) {
+			DocxRenderer renderer = new DocxRenderer(docx);
+
+			renderer.setStreaming(true);
+
+			builder = new MockGraphicsBuilder();
+			assertSameOutput(docx, renderer);
+		}
+	}
+
+	@Test
+	public void testStreamingRenderTwice() throws IOException {
+		DocxRenderer renderer = new DocxRenderer(TEST_HEADER_FIRST_EVEN_ODD, LoadMode.LAZY);
+
+		renderer.setStreaming(true);
+		renderer.render(new MockGraphicsBuilder());
+
+		assertSameOutput(TEST_HEADER_FIRST_EVEN_ODD, renderer);
+	}
+
+	@Test
+	public void testLoadLazy() throws IOException {
+		File[] documents = { TEST_HEADER_FIRST_EVEN_ODD, TEST_FOOTER_TABLE, TEST_IMAGE_INLINE, TEST_LIST_BULLET };
+
+		for (File docx : documents) {
+			builder = new MockGraphicsBuilder();
+			assertSameOutput(docx, new DocxRenderer(docx, LoadMode.LAZY));
+		}
+	}
+
+	@Test
+	public void testLoadParallel() throws IOException {
+		File[] documents = { TEST_HEADER_FIRST_EVEN_ODD, TEST_FOOTER_TABLE, TEST_IMAGE_INLINE, TEST_LIST_BULLET };
+
+		for (File docx : documents) {
+			builder = new MockGraphicsBuilder();
+			assertSameOutput(docx, new DocxRenderer(docx, LoadMode.PARALLEL));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadParallelCorruptPart() throws IOException {
+		File docx = File.createTempFile("corrupt", ".docx");
+
+		docx.deleteOnExit();
+
+		// the same document with its styles cut short
+		try (ZipInputStream in = new ZipInputStream(new FileInputStream(TEST_LIST_BULLET));
+				ZipOutputStream out = new ZipOutputStream(new FileOutputStream(docx))) {
+			for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+				byte[] data = IOUtils.toByteArray(in);
+
+				out.putNextEntry(new ZipEntry(entry.getName()));
+				out.write(entry.getName().equals("word/styles.xml") ? Arrays.copyOf(data, data.length / 2) : data);
+			}
+		}
+
+		new DocxRenderer(docx, LoadMode.PARALLEL);
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadLocalHeaderPastEnd() throws IOException {
+		ByteBuffer docx = ByteBuffer.wrap(Files.readAllBytes(TEST_HEADER.toPath()));
+
+		setDirectoryField(docx, 42, docx.limit());
+		new DocxRenderer(docx);
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadEntryPastEnd() throws IOException {
+		ByteBuffer docx = ByteBuffer.wrap(Files.readAllBytes(TEST_HEADER.toPath()));
+
+		setDirectoryField(docx, 20, docx.limit());
+		new DocxRenderer(docx);
+	}
+
+	@Test
+	public void testProbe() throws IOException {
+		DocumentInfo info = new DocxRenderer(TEST_FILE_LAYOUTS, LoadMode.LAZY).probe();
+		List<DocumentInfo.Section> sections = info.getSections();
+
+		assertEquals(3, sections.size());
+		assertEquals(12240, sections.get(0).getWidth());
+		assertEquals(15840, sections.get(0).getHeight());
+		assertEquals(12983, sections.get(1).getWidth());
+		assertEquals(6463, sections.get(1).getHeight());
+		assertEquals(15840, sections.get(2).getWidth());
+		assertEquals(12240, sections.get(2).getHeight());
+		assertFalse(sections.get(0).isContinuous());
+		assertEquals(0, info.getTableCount());
+		assertEquals(0, info.getImageCount());
+
+		info = new DocxRenderer(TEST_SECTION_CONTINUOUS).probe();
+
+		assertEquals(2, info.getSections().size());
+		assertTrue(info.getSections().get(1).isContinuous());
+
+		info = new DocxRenderer(TEST_TABLE_SIMPLE, LoadMode.LAZY).probe();
+
+		assertEquals(1, info.getTableCount());
+
+		info = new DocxRenderer(TEST_IMAGE_INLINE, LoadMode.LAZY).probe();
+
+		assertEquals(1, info.getImageCount());
+		assertEquals(309, info.getImageBytes());
+	}
+
+	@Test
+	public void testNormalizingRuns() throws IOException {
+		File[] documents = {
+			TEST_FONT_SIZE, TEST_FONT_STYLE, TEST_TEXT_COLOR, TEST_HYPERLINK, TEST_WORD_WRAP2,
+			TEST_TABBED2, TEST_EMPTY_PARAGRAPH, TEST_PAGE_BREAK_TABLE_OVERFLOW2,
+		};
+
+		for (File docx : documents) {
+			DocxRenderer renderer = new DocxRenderer(docx);
+
+			renderer.setNormalizingRuns(true);
+
+			builder = new MockGraphicsBuilder();
+			assertSameOutput(docx, renderer);
+		}
+	}
+
+	@Test
+	public void testWarmUp() {
+		DocxRenderer.warmUp();
+
+		// once warmed up, there's nothing left to do
+		assertFalse(DocxRenderer.warmUp());
+	}
+
+	@Test
+	public void testPackageCache() throws IOException {
+		PackageCache cache = new PackageCache(2);
+
+		assertSameOutput(TEST_HEADER, new DocxRenderer(TEST_HEADER, cache));
+		builder = new MockGraphicsBuilder();
+		assertSameOutput(TEST_HEADER, new DocxRenderer(ByteBuffer.wrap(Files.readAllBytes(TEST_HEADER.toPath())), cache));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		new DocxRenderer(TEST_FOOTER_TABLE, cache);
+		new DocxRenderer(TEST_IMAGE_INLINE, cache);
+		new DocxRenderer(TEST_HEADER, cache);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(4, cache.getMissCount());
+	}
+
+	@Test
+	public void testPackageCacheThreads() throws Exception {
+		final PackageCache cache = new PackageCache(2);
+		final List<MockGraphicsBuilder> builders = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+
+		// every renderer shares the cached package, so the renders must not trip over each other
+		for (int i = 0; i < 4; i++) {
+			final MockGraphicsBuilder threadBuilder = new MockGraphicsBuilder();
+			final DocxRenderer renderer = new DocxRenderer(TEST_LIST_BULLET, cache);
+
+			builders.add(threadBuilder);
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					renderer.render(threadBuilder);
+				}
+			});
+		}
+
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		new DocxRenderer(TEST_LIST_BULLET).render(builder);
+		assertEquals(3, cache.getHitCount());
+
+		for (MockGraphicsBuilder threadBuilder : builders) {
+			assertEquals(builder.getPages().size(), threadBuilder.getPages().size());
+			assertEquals(
+				builder.getPages().get(0).getActions(DrawStringAction.class).toString(),
+				threadBuilder.getPages().get(0).getActions(DrawStringAction.class).toString()
+			);
+		}
+	}
+
+	@Test
+	public void testStyleCache() throws IOException {
+		StyleCache cache = new StyleCache(10);
+
+		for (File docx : new File[] { TEST_LIST_BULLET, TEST_FONT_SIZE, TEST_LIST_BULLET, TEST_FONT_SIZE }) {
+			DocxRenderer renderer = new DocxRenderer(docx);
+
+			renderer.setStyleCache(cache);
+
+			builder = new MockGraphicsBuilder();
+			assertSameOutput(docx, renderer);
+		}
+
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testResolvedStyles() throws IOException {
+		DocxRenderer renderer = new DocxRenderer(TEST_LIST_BULLET);
+
+		assertSameOutput(TEST_LIST_BULLET, renderer);
+		assertTrue(renderer.getResolvedStyles().getHitCount() > 0);
+		assertTrue(renderer.getResolvedStyles().getMissCount() > 0);
+	}
+
+	@Test
+	public void testWordCache() throws Exception {
+		WordprocessingMLPackage word = WordprocessingMLPackage.createPackage();
+		ByteArrayOutputStream docx = new ByteArrayOutputStream();
+		WordMetricsCache cache = WordMetricsCache.getShared();
+
+		// Hebrew can't be shaped from a font's tables, so it's measured a word at a time
+		word.getMainDocumentPart().addParagraphOfText(StringUtils.repeat("\u05e9\u05dc\u05d5\u05dd ", 200));
+		word.save(docx);
+		new DocxRenderer(docx.toByteArray()).render(builder);
+
+		long hits = cache.getHitCount();
+		long misses = cache.getMissCount();
+
+		new DocxRenderer(docx.toByteArray()).render(new MockGraphicsBuilder());
+
+		assertTrue(cache.getHitCount() > hits);
+		assertEquals(misses, cache.getMissCount());
+		assertTrue(DocxRenderer.getWordCacheHitRate() > 0);
+	}
+
+	@Test
+	public void testCompiledStyle() throws Exception {
+		WordprocessingMLPackage word = WordprocessingMLPackage.createPackage();
+		ByteArrayOutputStream docx = new ByteArrayOutputStream();
+		List<Style> styles = word.getMainDocumentPart().getStyleDefinitionsPart().getJaxbElement().getStyle();
+		String namespace = "xmlns:w=\"" + Namespaces.NS_WORD12 + "\"";
+		Font base = null;
+		Font derived = null;
+
+		styles.add((Style) XmlUtils.unmarshalString("<w:style " + namespace + " w:type=\"paragraph\" w:styleId=\"Base\">"
+			+ "<w:rPr><w:b/><w:sz w:val=\"40\"/></w:rPr></w:style>"));
+		styles.add((Style) XmlUtils.unmarshalString("<w:style " + namespace + " w:type=\"paragraph\" w:styleId=\"Derived\">"
+			+ "<w:basedOn w:val=\"Base\"/><w:rPr><w:i/></w:rPr></w:style>"));
+
+		// paragraphs that only name a style, which are laid out in the compiled style as it is
+		for (String styleId : new String[] { "Base", "Derived" }) {
+			word.getMainDocumentPart().getContent().add(XmlUtils.unmarshalString("<w:p " + namespace
+				+ "><w:pPr><w:pStyle w:val=\"" + styleId + "\"/></w:pPr><w:r><w:t>" + styleId + "</w:t></w:r></w:p>"));
+		}
+
+		word.save(docx);
+		new DocxRenderer(docx.toByteArray()).render(builder);
+
+		for (Font font : builder.getPages().get(0).getActions(Font.class)) {
+			if (font.isBold() && font.isItalic()) {
+				derived = font;
+			} else if (font.isBold()) {
+				base = font;
+			}
+		}
+
+		assertNotNull(base);
+		assertNotNull(derived);
+		assertEquals(base.getSize2D(), derived.getSize2D(), 0);
+	}
+
+	@Test
+	public void testLongWord() throws Exception {
+		WordprocessingMLPackage word = WordprocessingMLPackage.createPackage();
+		String longWord = StringUtils.repeat("0123456789abcdef", 4000);
+		ByteArrayOutputStream docx = new ByteArrayOutputStream();
+		StringBuilder rendered = new StringBuilder();
+
+		word.getMainDocumentPart().addParagraphOfText(longWord);
+		word.save(docx);
+		new DocxRenderer(docx.toByteArray()).render(builder);
+
+		for (MockGraphics2D page : builder.getPages()) {
+			for (DrawStringAction action : page.getActions(DrawStringAction.class)) {
+				rendered.append(action.getText());
+			}
+		}
+
+		assertTrue(builder.getPages().size() > 1);
+		assertEquals(longWord, rendered.toString());
+	}
+
+	@Test
+	public void testElementHandler() throws IOException {
+		final int[] links = new int[1];
+		DocxRenderer renderer = new DocxRenderer(TEST_HYPERLINK);
+
+		renderer.setElementHandler(P.Hyperlink.class, new ElementHandler<P.Hyperlink>() {
+			@Override
+			public void handle(P.Hyperlink link, Context context) {
+				links[0]++;
+				context.renderContent(link.getContent());
+			}
+		});
+
+		assertSameOutput(TEST_HYPERLINK, renderer);
+		assertTrue(links[0] > 0);
+	}
+
+	@Test
+	public void testSkipElements() throws IOException {
+		DocxRenderer renderer = new DocxRenderer(TEST_TABLE_SIMPLE);
+
+		renderer.skipElements(Tbl.class);
+		renderer.render(builder);
+
+		assertEquals(1, builder.getPages().size());
+		assertTrue(builder.getPages().get(0).getActions(DrawStringAction.class).isEmpty());
+
+		builder = new MockGraphicsBuilder();
+		new DocxRenderer(TEST_TABLE_SIMPLE).render(builder);
+
+		assertFalse(builder.getPages().get(0).getActions(DrawStringAction.class).isEmpty());
+	}
+
+	private void assertSameOutput(File expected, DocxRenderer actual) throws IOException {
+		MockGraphicsBuilder expectedBuilder = new MockGraphicsBuilder();
+
+		new DocxRenderer(expected).render(expectedBuilder);
+		actual.render(builder);
+
+		List<MockGraphics2D> expectedPages = expectedBuilder.getPages();
+		List<MockGraphics2D> actualPages = builder.getPages();
+
+		assertEquals(expectedPages.size(), actualPages.size());
+
+		for (int i = 0; i < expectedPages.size(); i++) {
+			assertEquals(expectedPages.get(i).getWidth(), actualPages.get(i).getWidth());
+			assertEquals(expectedPages.get(i).getHeight(), actualPages.get(i).getHeight());
+			assertEquals(
+				expectedPages.get(i).getActions(DrawStringAction.class, DrawImageAction.class).toString(),
+				actualPages.get(i).getActions(DrawStringAction.class, DrawImageAction.class).toString()
+			);
+		}
+	}
+
+	// overwrites a field of every central directory entry of an archive
+	private static void setDirectoryField(ByteBuffer docx, int field, int value) throws IOException {
+		ByteBuffer le = docx.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int end = ZipDirectory.findEndOfDirectory(le);
+		int pos = ZipDirectory.getDirectoryOffset(le, end);
+
+		while (pos < end) {
+			le.putInt(pos + field, value);
+			pos += 46 + le.getShort(pos + 28) + le.getShort(pos + 30) + le.getShort(pos + 32);
+		}
+	}
+
 	private void assertFontAttributes(Font font, Object ... expectedStyles) {
 		Set<TextAttribute> actualStyles = font.getAttributes().keySet();
 
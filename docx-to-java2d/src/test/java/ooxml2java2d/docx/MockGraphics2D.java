@@ -40,10 +40,18 @@ import java.awt.image.RenderedImage;
 import java.awt.image.renderable.RenderableImage;
 import java.text.AttributedCharacterIterator;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class MockGraphics2D extends Graphics2D {
+	// the blocks of AdvanceTable, which is what text drawn as glyphs is shaped from
+	private static final char[][] GLYPH_BLOCKS = {
+		{ 0x20, 0xFF },
+		{ 0x2000, 0x206F },
+		{ 0x20AC, 0x20AC },
+	};
+	private static final Map<Font, Map<Integer, Character>> GLYPH_CHARS = new HashMap<>();
 	private List<Object> actions = new ArrayList<>();
 	private int width;
 	private int height;
@@ -105,7 +113,7 @@ public class MockGraphics2D extends Graphics2D {
 
 	@Override
 	public void drawGlyphVector(GlyphVector g, float x, float y) {
-
+		actions.add(new DrawStringAction(getText(g), (int) x, (int) y));
 	}
 
 	@Override
@@ -444,4 +452,33 @@ public class MockGraphics2D extends Graphics2D {
 	public void setXORMode(Color color) {
 
 	}
+
+	/**
+	 * Maps glyphs back to the characters they were created from, which are only ever from the blocks an advance table
+	 * covers when drawn as glyphs.
+	 */
+	private static synchronized String getText(GlyphVector g) {
+		Map<Integer, Character> chars = GLYPH_CHARS.get(g.getFont());
+
+		if (chars == null) {
+			chars = new HashMap<>();
+
+			// backwards, so that where characters share a glyph (e.g. the missing glyph) the lowest one is kept
+			for (int i = GLYPH_BLOCKS.length - 1; i >= 0; i--) {
+				for (char c = GLYPH_BLOCKS[i][1]; c >= GLYPH_BLOCKS[i][0]; c--) {
+					chars.put(g.getFont().createGlyphVector(g.getFontRenderContext(), new char[] { c }).getGlyphCode(0), c);
+				}
+			}
+
+			GLYPH_CHARS.put(g.getFont(), chars);
+		}
+
+		StringBuilder text = new StringBuilder();
+
+		for (int glyphCode : g.getGlyphCodes(0, g.getNumGlyphs(), null)) {
+			text.append(chars.get(glyphCode));
+		}
+
+		return text.toString();
+	}
 }
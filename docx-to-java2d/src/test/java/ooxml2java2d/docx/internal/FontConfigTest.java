@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.EnumSet;
+
+import ooxml2java2d.docx.internal.font.AdvanceTable;
+import ooxml2java2d.docx.internal.font.ShapedText;
+
+import org.junit.Test;
+
+public class FontConfigTest {
+	private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+	@Test
+	public void testInterned() {
+		FontConfig bold = FontConfig.getDefault().withName("Arial").withSize(240).withStyle(FontStyle.BOLD);
+
+		assertSame(bold, FontConfig.getInstance("Arial", 240, EnumSet.of(FontStyle.BOLD)));
+		assertSame(bold, bold.withStyle(FontStyle.BOLD));
+		assertSame(bold.getFont(), FontConfig.getDefault().withStyle(FontStyle.BOLD).withSize(240).withName("Arial").getFont());
+		assertNotSame(bold, bold.withSize(241));
+	}
+
+	@Test
+	public void testFont() {
+		FontConfig fontConfig = FontConfig.getDefault().withName("Arial").withSize(240).withStyle(FontStyle.ITALIC).withStyle(FontStyle.BOLD);
+
+		assertEquals("Arial", fontConfig.getFont().getName());
+		assertEquals(240, fontConfig.getFont().getSize2D(), 0);
+		assertEquals(Font.BOLD | Font.ITALIC, fontConfig.getFont().getStyle());
+		assertTrue(fontConfig.getStyles().contains(FontStyle.ITALIC));
+	}
+
+	@Test
+	public void testShape() {
+		FontConfig plain = FontConfig.getDefault().withName("Arial").withSize(240);
+		FontConfig superscript = plain.withStyle(FontStyle.SUPERSCRIPT);
+		String text = "Lorem ipsum, dolor sit amet: caf\u00e9 \u2192 \u05e9\u05dc\u05d5\u05dd";
+
+		assertNotNull(AdvanceTable.create(plain.getFont(), FRC).shape("Lorem ipsum"));
+		assertNotNull(AdvanceTable.create(plain.getFont(), FRC).shape("\u201cLorem\u201d \u2013 \u2018ipsum\u2019\u2026 \u2022 \u20ac5"));
+		assertNull(AdvanceTable.create(plain.getFont(), FRC).shape(text));
+		assertNull(AdvanceTable.create(superscript.getFont(), FRC));
+		// only the words the table doesn't cover are left to be drawn as strings
+		assertNotNull(plain.shape(text).getGlyphRun(0, 11));
+		assertNull(plain.shape(text).getGlyphRun(text.length() - 4, text.length()));
+
+		for (FontConfig fontConfig : new FontConfig[] { plain, superscript, plain.withStyle(FontStyle.BOLD) }) {
+			ShapedText shaped = fontConfig.shape(text);
+
+			for (int start = 0; start < text.length(); start += 6) {
+				int end = Math.min(text.length(), start + 6);
+				Rectangle2D bounds = fontConfig.getStringBoxSize(text.substring(start, end));
+
+				assertEquals(bounds.getWidth(), shaped.getWidth(start, end), 0.5);
+			}
+
+			assertEquals(fontConfig.getStringBoxSize(text).getHeight(), shaped.getHeight(0, text.length()), 0.01);
+		}
+
+		assertEquals(0, plain.shape("").getWidth(0, 0), 0);
+	}
+
+	@Test
+	public void testMeasuredLineHeight() {
+		FontConfig fontConfig = FontConfig.getDefault().withName("Arial").withSize(237);
+		double height = fontConfig.getStringBoxSize("").getHeight();
+
+		WordMetricsCache.getShared().put(fontConfig, "tall", new Rectangle2D.Double(0, -900, 100, 1000));
+
+		// a line is only as tall as its own words
+		MeasuredText measured = new MeasuredText(fontConfig, "Lorem tall", null);
+
+		assertEquals(height, measured.getHeight(0, 5), 0.01);
+		assertEquals(1000, measured.getHeight(5, 10), 0);
+		assertEquals(1000, measured.getHeight(7, 8), 0);
+	}
+
+	@Test
+	public void testColors() {
+		assertSame(Colors.getInstance("FF0000"), Colors.getInstance("FF0000"));
+		assertSame(Colors.getInstance("FF0000"), Colors.getInstance("ff0000"));
+		assertSame(Colors.getInstance("00ABCD"), Colors.getInstance("abcd"));
+		assertSame(Color.BLACK, Colors.getInstance("000000"));
+		assertEquals(new Color(0, 0x12, 0x34), Colors.getInstance("1234"));
+	}
+}
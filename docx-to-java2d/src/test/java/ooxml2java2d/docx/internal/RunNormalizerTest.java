@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.docx4j.jaxb.Context;
+import org.docx4j.wml.BooleanDefaultTrue;
+import org.docx4j.wml.CTLanguage;
+import org.docx4j.wml.ObjectFactory;
+import org.docx4j.wml.R;
+import org.docx4j.wml.RPr;
+import org.docx4j.wml.Text;
+import org.junit.Test;
+
+public class RunNormalizerTest {
+	private ObjectFactory factory = Context.getWmlObjectFactory();
+
+	@Test
+	public void testNormalize() {
+		R bold1 = createRun("Hello ", createRPr(true, "en-GB"));
+		R bold2 = createRun("World", createRPr(true, "en-US"));
+		R plain = createRun("!", null);
+		R empty = new R();
+		List<Object> content = new ArrayList<>();
+
+		empty.setRPr(createRPr(false, null));
+
+		content.add(bold1);
+		content.add(factory.createProofErr());
+		content.add(factory.createPBookmarkStart(factory.createCTBookmark()));
+		content.add(bold2);
+		content.add(plain);
+		content.add(empty);
+		content.add(createRun("?", createRPr(false, null)));
+
+		List<Object> normalized = RunNormalizer.normalize(content);
+
+		assertEquals(4, normalized.size());
+		assertEquals(2, ((R) normalized.get(0)).getContent().size());
+		assertSame(bold1.getRPr(), ((R) normalized.get(0)).getRPr());
+		assertSame(plain, normalized.get(1));
+		assertSame(empty, normalized.get(2));
+
+		// the document's own runs are left untouched
+		assertEquals(1, bold1.getContent().size());
+		assertEquals(7, content.size());
+	}
+
+	@Test
+	public void testIsSameFormatting() {
+		assertTrue(RunNormalizer.isSameFormatting(null, createRPr(false, "en-GB")));
+		assertTrue(RunNormalizer.isSameFormatting(createRPr(true, "en-GB"), createRPr(true, null)));
+		assertFalse(RunNormalizer.isSameFormatting(null, createRPr(true, null)));
+	}
+
+	private R createRun(String value, RPr rPr) {
+		R run = factory.createR();
+		Text text = factory.createText();
+
+		text.setValue(value);
+		run.setRPr(rPr);
+		run.getContent().add(factory.createRT(text));
+
+		return run;
+	}
+
+	private RPr createRPr(boolean bold, String lang) {
+		RPr rPr = factory.createRPr();
+
+		if (bold) {
+			rPr.setB(new BooleanDefaultTrue());
+		}
+
+		if (lang != null) {
+			CTLanguage language = factory.createCTLanguage();
+
+			language.setVal(lang);
+			rPr.setLang(language);
+		}
+
+		return rPr;
+	}
+}
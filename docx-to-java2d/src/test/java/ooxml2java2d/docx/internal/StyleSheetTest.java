@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import ooxml2java2d.docx.internal.numbering.ListDefinitions;
+
+import org.docx4j.wml.Jc;
+import org.docx4j.wml.JcEnumeration;
+import org.docx4j.wml.PPr;
+import org.docx4j.wml.PPrBase.PStyle;
+import org.docx4j.wml.Style;
+import org.junit.Test;
+
+public class StyleSheetTest {
+	@Test
+	public void testParagraphStyle() {
+		ParagraphStyle defaultStyle = new ParagraphStyle();
+		ParagraphStyle heading = new ParagraphStyle(defaultStyle);
+		StyleSheet styleSheet = new StyleSheet(Collections.<String, Style>emptyMap(), ListDefinitions.empty(), defaultStyle,
+			Collections.singletonMap("Heading1", heading));
+		PPr properties = new PPr();
+
+		assertSame(defaultStyle, styleSheet.getParagraphStyle(null));
+		assertSame(defaultStyle, styleSheet.getParagraphStyle(properties));
+
+		properties.setPStyle(new PStyle());
+		properties.getPStyle().setVal("Heading1");
+		assertSame(heading, styleSheet.getParagraphStyle(properties));
+
+		properties.getPStyle().setVal("Missing");
+		assertNull(styleSheet.getParagraphStyle(properties));
+
+		// anything more than a style has to be resolved
+		properties.getPStyle().setVal("Heading1");
+		properties.setJc(new Jc());
+		properties.getJc().setVal(JcEnumeration.CENTER);
+		assertNull(styleSheet.getParagraphStyle(properties));
+	}
+
+	@Test
+	public void testReadOnly() {
+		ParagraphStyle defaultStyle = new ParagraphStyle();
+		ParagraphStyle heading = new ParagraphStyle(defaultStyle);
+
+		new StyleSheet(Collections.<String, Style>emptyMap(), ListDefinitions.empty(), defaultStyle,
+			Collections.singletonMap("Heading1", heading));
+
+		assertTrue(defaultStyle.isReadOnly());
+		assertTrue(heading.isReadOnly());
+		assertFalse(new ParagraphStyle(heading).isReadOnly());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testModifyReadOnly() {
+		ParagraphStyle defaultStyle = new ParagraphStyle();
+
+		new StyleSheet(Collections.<String, Style>emptyMap(), ListDefinitions.empty(), defaultStyle,
+			Collections.<String, ParagraphStyle>emptyMap());
+		defaultStyle.setSpaceAfter(100);
+	}
+}
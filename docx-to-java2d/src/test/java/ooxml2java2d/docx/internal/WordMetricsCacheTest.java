@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Rectangle2D;
+import java.lang.ref.WeakReference;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+public class WordMetricsCacheTest {
+	@Test
+	public void testGet() {
+		WordMetricsCache cache = new WordMetricsCache(100);
+		FontConfig fontConfig = FontConfig.getDefault().withSize(240);
+		Rectangle2D bounds = fontConfig.getStringBoxSize("word");
+
+		assertNull(cache.get(fontConfig, "word"));
+		cache.put(fontConfig, "word", bounds);
+		assertSame(bounds, cache.get(fontConfig, "word"));
+		assertNull(cache.get(fontConfig.withSize(241), "word"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1 / 3.0, cache.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void testBounded() {
+		WordMetricsCache cache = new WordMetricsCache(64);
+		FontConfig fontConfig = FontConfig.getDefault();
+		String longWord = StringUtils.repeat("a", WordMetricsCache.MAX_WORD_LENGTH + 1);
+
+		for (int i = 0; i < 1000; i++) {
+			cache.put(fontConfig, "word" + i, new Rectangle2D.Float());
+		}
+
+		cache.put(fontConfig, longWord, new Rectangle2D.Float());
+
+		assertTrue(cache.size() <= 64);
+		assertNull(cache.get(fontConfig, longWord));
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	public void testFontsCollected() throws Exception {
+		WordMetricsCache cache = new WordMetricsCache(100);
+		FontConfig fontConfig = FontConfig.getDefault().withSize(239.5f);
+		WeakReference<FontConfig> reference = new WeakReference<>(fontConfig);
+
+		cache.put(fontConfig, "word", new Rectangle2D.Float());
+		fontConfig = null;
+
+		for (int i = 0; i < 10 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		// the cached word doesn't keep its font alive
+		assertNull(reference.get());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testShared() {
+		FontConfig fontConfig = FontConfig.getDefault().withName("Arial").withSize(240);
+		long hits = WordMetricsCache.getShared().getHitCount();
+		Rectangle2D bounds = fontConfig.getStringBoxSize("shared");
+
+		assertSame(bounds, fontConfig.getStringBoxSize("shared"));
+		assertTrue(WordMetricsCache.getShared().getHitCount() > hits);
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.awt.Font;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.FontTablePart;
+import org.docx4j.openpackaging.parts.WordprocessingML.ObfuscatedFontPart;
+import org.docx4j.relationships.Relationship;
+import org.docx4j.wml.FontRel;
+import org.docx4j.wml.Fonts;
+import org.junit.Test;
+
+public class EmbeddedFontsTest {
+	private static final File TEST_FONT = new File("/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+	private static final String TEST_FONT_KEY = "{01234567-89AB-CDEF-0123-456789ABCDEF}";
+
+	@Test
+	public void testDeobfuscate() {
+		byte[] data = new byte[40];
+
+		EmbeddedFonts.deobfuscate(data, TEST_FONT_KEY);
+
+		assertEquals((byte) 0xEF, data[0]);
+		assertEquals((byte) 0xCD, data[1]);
+		assertEquals((byte) 0x01, data[15]);
+		assertEquals((byte) 0xEF, data[16]);
+		assertEquals(0, data[32]);
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		assumeTrue(TEST_FONT.isFile());
+
+		Map<String, String> families = EmbeddedFonts.register(createFontTable());
+		String name = families.get("Embedded Sans");
+		Font font = FontRegistry.getShared().getFont(name, Font.PLAIN);
+
+		assertEquals("DejaVu Sans", font.getFamily());
+		assertEquals(Font.BOLD, FontRegistry.getShared().getFont(name, Font.BOLD).getStyle());
+
+		// another document embedding the same font shares it
+		assertEquals(families, EmbeddedFonts.register(createFontTable()));
+		assertSame(font, FontRegistry.getShared().getFont(name, Font.PLAIN));
+		assertTrue(name.matches("Embedded Sans \\(embedded [0-9a-f]{64}\\)"));
+
+		// and it stays registered until neither render is using it
+		EmbeddedFonts.release(families);
+		assertTrue(FontRegistry.getShared().isLoaded(name, Font.PLAIN));
+		EmbeddedFonts.release(families);
+		assertFalse(FontRegistry.getShared().isLoaded(name, Font.PLAIN));
+	}
+
+	@Test
+	public void testRegisterFailure() throws Exception {
+		assumeTrue(TEST_FONT.isFile());
+
+		FontTablePart fontTable = createFontTable();
+		Fonts.Font broken = new Fonts.Font();
+
+		broken.setName("Broken Sans");
+		broken.setEmbedRegular(new FontRel());
+		broken.getEmbedRegular().setId(fontTable.getJaxbElement().getFont().get(0).getEmbedRegular().getId());
+		broken.getEmbedRegular().setFontKey("{0123}");
+		fontTable.getJaxbElement().getFont().add(broken);
+
+		try {
+			EmbeddedFonts.register(fontTable);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid font key {0123}", e.getMessage());
+		}
+
+		Map<String, String> families = EmbeddedFonts.register(createFontTable());
+
+		// the family registered before the failure was released with it, so this is the only registration left
+		EmbeddedFonts.release(families);
+		assertFalse(FontRegistry.getShared().isLoaded(families.get("Embedded Sans"), Font.PLAIN));
+	}
+
+	@Test
+	public void testEmptyFontTable() throws Exception {
+		FontTablePart fontTable = createFontTable();
+
+		fontTable.setJaxbElement((Fonts) null);
+
+		assertTrue(EmbeddedFonts.register(fontTable).isEmpty());
+	}
+
+	private FontTablePart createFontTable() throws Exception {
+		WordprocessingMLPackage word = WordprocessingMLPackage.createPackage();
+		FontTablePart fontTable = new FontTablePart();
+		ObfuscatedFontPart fontPart = new ObfuscatedFontPart(new PartName("/word/fonts/font1.odttf"));
+		byte[] data = Files.readAllBytes(TEST_FONT.toPath());
+
+		EmbeddedFonts.deobfuscate(data, TEST_FONT_KEY);
+		fontPart.setBinaryData(data);
+		fontTable.setJaxbElement(new Fonts());
+		word.getMainDocumentPart().addTargetPart(fontTable);
+
+		Relationship rel = fontTable.addTargetPart(fontPart);
+		Fonts.Font font = new Fonts.Font();
+		FontRel fontRel = new FontRel();
+
+		fontRel.setId(rel.getId());
+		fontRel.setFontKey(TEST_FONT_KEY);
+		font.setName("Embedded Sans");
+		font.setEmbedRegular(fontRel);
+		fontTable.getJaxbElement().getFont().add(font);
+
+		return fontTable;
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Font;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class FontRegistryTest {
+	@Test
+	public void testPreload() {
+		FontRegistry registry = FontRegistry.getShared();
+
+		registry.preload(Arrays.asList(Font.SANS_SERIF, Font.MONOSPACED));
+
+		Font font = registry.getFont(Font.SANS_SERIF, Font.PLAIN);
+
+		assertTrue(registry.isLoaded(Font.SANS_SERIF, Font.PLAIN));
+		assertSame(font, registry.getFont(Font.SANS_SERIF, Font.PLAIN));
+		assertEquals(Font.SANS_SERIF, font.getName());
+		assertEquals(1, font.getSize());
+	}
+
+	@Test
+	public void testRegisterSurvivesConfigure() {
+		FontRegistry registry = FontRegistry.getShared();
+		Font font = new Font(Font.SERIF, Font.PLAIN, 1);
+
+		registry.register("Registered Serif", Font.PLAIN, font);
+		// as when a font library is uninstalled while a render is using an embedded font
+		registry.configure(null, Collections.<String, String>emptyMap(), null, false);
+
+		assertSame(font, registry.getFont("Registered Serif", Font.PLAIN));
+
+		registry.unregister("Registered Serif", Font.PLAIN);
+		assertFalse(registry.isLoaded("Registered Serif", Font.PLAIN));
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OpenTypeMetricsTest {
+	private static final File DEJAVU_SANS = new File("/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+	private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+	private OpenTypeMetrics metrics;
+	private Font font;
+
+	@Before
+	public void setUp() throws Exception {
+		assumeTrue(DEJAVU_SANS.isFile());
+
+		metrics = OpenTypeMetrics.load(DEJAVU_SANS);
+		font = Font.createFont(Font.TRUETYPE_FONT, DEJAVU_SANS).deriveFont(240f);
+	}
+
+	@Test
+	public void testGlyphIds() {
+		for (char c : "Aa0 \u00e9\u20ac".toCharArray()) {
+			assertEquals(font.createGlyphVector(FRC, new char[] { c }).getGlyphCode(0), metrics.getGlyphId(c));
+		}
+
+		assertEquals(0, metrics.getGlyphId('\ufffe'));
+	}
+
+	@Test
+	public void testStringBounds() {
+		Font kerned = font.deriveFont(Collections.singletonMap(TextAttribute.KERNING, TextAttribute.KERNING_ON));
+
+		for (String text : new String[] { "Lorem ipsum", "AVAWAY Tower", "caf\u00e9 \u20ac10" }) {
+			Rectangle2D expected = kerned.getStringBounds(text, FRC);
+			Rectangle2D actual = metrics.getStringBounds(text, 240, true);
+
+			assertEquals(text, expected.getWidth(), actual.getWidth(), 0.05);
+			assertEquals(text, expected.getHeight(), actual.getHeight(), 0.05);
+			assertEquals(text, expected.getY(), actual.getY(), 0.05);
+		}
+
+		assertEquals(font.getStringBounds("", FRC).getHeight(), metrics.getStringBounds("", 240, true).getHeight(), 0.05);
+	}
+
+	@Test
+	public void testUnkernedStringBounds() {
+		// decorated text is drawn as a string, which isn't kerned
+		for (String text : new String[] { "AVAWAY Tower", "To Yvonne" }) {
+			Rectangle2D expected = font.getStringBounds(text, FRC);
+
+			assertEquals(text, expected.getWidth(), metrics.getStringBounds(text, 240, false).getWidth(), 0.05);
+		}
+	}
+
+	@Test
+	public void testUnmeasurable() {
+		// right to left, combining marks and characters without glyphs are left to the JDK
+		assertNull(metrics.getStringBounds("\u05e9\u05dc\u05d5\u05dd", 240, true));
+		assertNull(metrics.getStringBounds("e\u0301", 240, true));
+		assertNull(metrics.getStringBounds("\u4e2d", 240, true));
+		// presentation forms are right to left too
+		assertNull(metrics.getStringBounds("\ufb2a", 240, true));
+		assertNull(metrics.getStringBounds("\ufe8d\ufedf", 240, true));
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAFont() throws IOException {
+		OpenTypeMetrics.read(ByteBuffer.wrap("Not a font, just some text".getBytes("US-ASCII")));
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Test;
+
+public class ByteBufferImageInputStreamTest {
+	@Test
+	public void testReadImage() throws IOException {
+		BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+
+		image.setRGB(5, 5, Color.RED.getRGB());
+
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+		ImageIO.write(image, "PNG", png);
+
+		// place the image part way into a direct buffer, as it would be in a mapped archive
+		ByteBuffer buffer = ByteBuffer.allocateDirect(png.size() + 20);
+
+		buffer.position(10);
+		buffer.put(png.toByteArray());
+		buffer.position(10);
+		buffer.limit(10 + png.size());
+
+		BufferedImage read = ImageIO.read(new ByteBufferImageInputStream(buffer));
+
+		assertEquals(20, read.getWidth());
+		assertEquals(10, read.getHeight());
+		assertEquals(Color.RED.getRGB(), read.getRGB(5, 5));
+		assertEquals(10, buffer.position());
+	}
+
+	@Test
+	public void testSeek() throws IOException {
+		ImageInputStream in = new ByteBufferImageInputStream(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 }));
+		byte[] b = new byte[10];
+
+		assertEquals(5, in.length());
+		in.seek(3);
+		assertEquals(4, in.read());
+		assertEquals(1, in.read(b, 0, 10));
+		assertEquals(5, b[0]);
+		assertEquals(-1, in.read());
+		in.seek(0);
+		assertEquals(1, in.readByte());
+		in.close();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.docx.internal.numbering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import ooxml2java2d.docx.internal.FontConfig;
+
+import org.junit.Test;
+
+public class ListCountersTest {
+	@Test
+	public void testNext() {
+		ListDefinition list = new ListDefinition("1", "1", new LevelDefinition[] {
+			new LevelDefinition(0, ListFormat.DECIMAL, "%1.", 1, null),
+			new LevelDefinition(1, ListFormat.LOWER_LETTER, "%1.%2)", 1, null),
+			new LevelDefinition(2, ListFormat.BULLET, "", 1, null),
+			new LevelDefinition(3, ListFormat.NONE, "", 1, null),
+		});
+		ListCounters counters = new ListCounters();
+
+		assertEquals("1.", counters.next(list, 0));
+		assertEquals("1.a)", counters.next(list, 1));
+		assertEquals("1.b)", counters.next(list, 1));
+		assertEquals(ListFormat.BULLET_TEXT, counters.next(list, 2));
+		assertEquals("", counters.next(list, 3));
+		assertEquals("2.", counters.next(list, 0));
+		assertEquals("2.a)", counters.next(list, 1));
+	}
+
+	@Test
+	public void testSharedAbstractDefinition() {
+		LevelDefinition[] levels = {
+			new LevelDefinition(0, ListFormat.DECIMAL, "%1.", 1, null),
+			new LevelDefinition(1, ListFormat.LOWER_ROMAN, "%2.", 1, null),
+		};
+		ListDefinition first = new ListDefinition("1", "5", levels);
+		ListDefinition second = new ListDefinition("2", "5", levels);
+		ListDefinition restarted = new ListDefinition("3", "5", new LevelDefinition[] {
+			new LevelDefinition(0, ListFormat.DECIMAL, "%1.", 10, true, null),
+			levels[1],
+		});
+		ListDefinition other = new ListDefinition("4", "6", levels);
+		ListCounters counters = new ListCounters();
+
+		assertEquals("1.", counters.next(first, 0));
+		assertEquals("2.", counters.next(first, 0));
+		assertEquals("i.", counters.next(first, 1));
+		// a different num of the same abstractNum carries on, and only a start override restarts it
+		assertEquals("3.", counters.next(second, 0));
+		assertEquals("i.", counters.next(second, 1));
+		assertEquals("ii.", counters.next(second, 1));
+		assertEquals("1.", counters.next(other, 0));
+		assertEquals("10.", counters.next(restarted, 0));
+		assertEquals("11.", counters.next(restarted, 0));
+		assertEquals("12.", counters.next(first, 0));
+	}
+
+	@Test
+	public void testFormat() {
+		assertEquals("14", ListFormat.DECIMAL.format(14));
+		assertEquals("z", ListFormat.LOWER_LETTER.format(26));
+		assertEquals("BB", ListFormat.UPPER_LETTER.format(28));
+		assertEquals("xiv", ListFormat.LOWER_ROMAN.format(14));
+		assertEquals("MCMXCIX", ListFormat.UPPER_ROMAN.format(1999));
+	}
+
+	@Test
+	public void testLabelBounds() {
+		ListCounters counters = new ListCounters();
+		FontConfig fontConfig = FontConfig.getDefault().withSize(240);
+
+		assertSame(counters.getLabelBounds(fontConfig, "1."), counters.getLabelBounds(fontConfig, "1."));
+	}
+}
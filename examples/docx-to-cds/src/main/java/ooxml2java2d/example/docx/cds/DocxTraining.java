@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 James Carter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ooxml2java2d.example.docx.cds;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import ooxml2java2d.GraphicsBuilder;
+import ooxml2java2d.docx.DocxRenderer;
+
+/**
+ * Renders every document in the given files or directories so that the classes they need are loaded. Run with
+ * -XX:DumpLoadedClassList to produce the class list for a class data sharing archive (see the appcds profile).
+ */
+public class DocxTraining {
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Expected one or more docx files or directories as an input");
+			System.exit(1);
+		}
+
+		DocxRenderer.warmUp();
+
+		for (String arg : args) {
+			train(new File(arg));
+		}
+	}
+
+	private static void train(File file) throws IOException {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+
+			if (files != null) {
+				for (File child : files) {
+					train(child);
+				}
+			}
+		} else if (file.getName().endsWith(".docx")) {
+			System.out.println("Rendering " + file);
+			new DocxRenderer(file).render(new ImageBuilder());
+		}
+	}
+
+	private static class ImageBuilder implements GraphicsBuilder {
+		private static final float scale = 0.05f; // twips-to-72dpi
+
+		@Override
+		public Graphics2D nextPage(int pageWidth, int pageHeight) {
+			BufferedImage bi = new BufferedImage((int) (pageWidth * scale), (int) (pageHeight * scale), BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = bi.createGraphics();
+			g.scale(scale, scale);
+			return g;
+		}
+	}
+}